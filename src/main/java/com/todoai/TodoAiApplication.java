@@ -2,8 +2,10 @@ package com.todoai;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class TodoAiApplication {
     public static void main(String[] args) {
         SpringApplication.run(TodoAiApplication.class, args);
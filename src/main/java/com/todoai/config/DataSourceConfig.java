@@ -0,0 +1,98 @@
+package com.todoai.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Read-replica routing, active only when replica URLs are configured; otherwise Spring Boot's single
+ * auto-configured pool is used unchanged. Each replica gets its own Hikari pool.
+ */
+@Configuration
+@ConditionalOnExpression("!'${todoai.datasource.replicas.urls:}'.isBlank()")
+public class DataSourceConfig {
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceConfig.class);
+
+    @Value("${todoai.datasource.replicas.urls}")
+    private String replicaUrls;
+
+    @Value("${todoai.datasource.replicas.username:${spring.datasource.username}}")
+    private String replicaUsername;
+
+    @Value("${todoai.datasource.replicas.password:${spring.datasource.password}}")
+    private String replicaPassword;
+
+    @Value("${todoai.datasource.replicas.maximum-pool-size:10}")
+    private int replicaPoolSize;
+
+    @Value("${todoai.datasource.replicas.max-lag:2s}")
+    private Duration maxLag;
+
+    @Value("${todoai.datasource.replicas.sticky-window:5s}")
+    private Duration stickyWindow;
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             DataSourceProperties properties) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        List<String> urls = Arrays.stream(replicaUrls.split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .toList();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(urls.get(i));
+            replica.setUsername(replicaUsername);
+            replica.setPassword(replicaPassword);
+            replica.setDriverClassName(properties.getDriverClassName());
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setMinimumIdle(Math.min(2, replicaPoolSize));
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+
+        routingDataSource = new ReplicaRoutingDataSource(primaryDataSource, replicas, maxLag, stickyWindow);
+        logger.info("Routing read-only transactions to {} replica(s) (max lag: {}, sticky window: {})",
+                replicas.size(), maxLag, stickyWindow);
+        return routingDataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Scheduled(fixedDelayString = "${todoai.datasource.replicas.lag-check-interval:5s}")
+    public void checkReplicaLag() {
+        if (routingDataSource != null) {
+            routingDataSource.checkReplicaLag();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.todoai.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.todoai.entity.User;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions to a healthy replica (round robin) and everything else to the primary.
+ * A user who wrote within the sticky window reads from the primary so they see their own writes.
+ * Unauthenticated transactions (registration, principal loads) never mark a writer, since they would
+ * pin every anonymous request to the primary; reads that cannot rely on stickiness use
+ * {@link #onPrimary}. Stickiness is tracked per node: another node learns of a write only through {@link #markRecentWriter}, which the cache
+ * invalidation bus calls for todo and user changes once they are committed and notified. Writes that
+ * are not broadcast, such as AI suggestions, are sticky only on the node that made them, and a read on
+ * another node racing the notification can still hit a replica. Replicas lagging by more
+ * than the allowed delay, or failing the lag check, are skipped until they catch up.
+ * Must be wrapped in a {@code LazyConnectionDataSourceProxy}: the read-only flag is only known once
+ * the transaction has begun, after a connection would otherwise have been taken.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+
+    private static final Long ANONYMOUS = 0L;
+
+    // Replay lag in ms; 0 when the replica has replayed everything it received, so an idle primary is not "lag"
+    private static final String LAG_SQL = "SELECT CASE WHEN NOT pg_is_in_recovery() " +
+            "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END";
+
+    private static final ThreadLocal<Boolean> primaryRequired = new ThreadLocal<>();
+
+    private final Map<String, HikariDataSource> replicas;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Cache<Long, Boolean> recentWriters;
+    private volatile List<String> healthyReplicas;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicaPools,
+                                    Duration maxLag, Duration stickyWindow) {
+        this.replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaPools.size(); i++) {
+            replicas.put("replica-" + i, replicaPools.get(i));
+        }
+        this.maxLag = maxLag;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(stickyWindow)
+                .build();
+        this.healthyReplicas = List.copyOf(replicas.keySet());
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Long userId = currentUserId();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive() && !ANONYMOUS.equals(userId)) {
+                markRecentWriter(userId);
+            }
+            return PRIMARY;
+        }
+
+        List<String> healthy = healthyReplicas;
+        if (healthy.isEmpty() || primaryRequired.get() != null || recentWriters.getIfPresent(userId) != null) {
+            return PRIMARY;
+        }
+        return healthy.get(Math.floorMod(next.getAndIncrement(), healthy.size()));
+    }
+
+    /**
+     * Runs the work with its read-only transactions routed to the primary. The transaction's connection
+     * must not have been taken yet, which holds inside a read-only transaction until its first statement.
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        boolean outermost = primaryRequired.get() == null;
+        primaryRequired.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (outermost) {
+                primaryRequired.remove();
+            }
+        }
+    }
+
+    /**
+     * Keeps the user's reads on the primary for the sticky window, e.g. after a write on another node.
+     */
+    public void markRecentWriter(Long userId) {
+        recentWriters.put(userId, Boolean.TRUE);
+    }
+
+    /**
+     * Re-evaluates which replicas are within the allowed lag.
+     */
+    public void checkReplicaLag() {
+        List<String> healthy = new ArrayList<>(replicas.size());
+        for (Map.Entry<String, HikariDataSource> replica : replicas.entrySet()) {
+            String name = replica.getKey();
+            boolean wasHealthy = healthyReplicas.contains(name);
+            try (Connection connection = replica.getValue().getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(LAG_SQL)) {
+                rs.next();
+                long lagMillis = rs.getLong(1);
+                if (lagMillis <= maxLag.toMillis()) {
+                    healthy.add(name);
+                    if (!wasHealthy) {
+                        logger.info("Replica {} is back within the allowed lag ({} ms)", name, lagMillis);
+                    }
+                } else if (wasHealthy) {
+                    logger.warn("Replica {} lags by {} ms; reads go elsewhere until it catches up", name, lagMillis);
+                }
+            } catch (SQLException e) {
+                if (wasHealthy) {
+                    logger.warn("Replica {} failed its lag check; reads go elsewhere. Error: {}", name, e.getMessage());
+                }
+            }
+        }
+        healthyReplicas = List.copyOf(healthy);
+    }
+
+    public int getReplicaCount() {
+        return replicas.size();
+    }
+
+    public int getHealthyReplicaCount() {
+        return healthyReplicas.size();
+    }
+
+    @Override
+    public void close() {
+        replicas.values().forEach(HikariDataSource::close);
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User) {
+            return ((User) authentication.getPrincipal()).getId();
+        }
+        return ANONYMOUS;
+    }
+}
@@ -1,14 +1,25 @@
 package com.todoai.controller;
 
+import com.todoai.dto.ai.AiJobResponse;
 import com.todoai.dto.ai.AiSuggestionResponse;
+import com.todoai.dto.page.CursorPage;
 import com.todoai.dto.todo.TodoResponse;
+import com.todoai.service.AiJob;
+import com.todoai.service.AiJobService;
+import com.todoai.service.LocalPrioritizationService;
 import com.todoai.service.OpenAiService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.net.URI;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -17,21 +28,92 @@ public class AiController {
     @Autowired
     private OpenAiService openAiService;
 
+    @Autowired
+    private AiJobService aiJobService;
+
+    @Autowired
+    private LocalPrioritizationService localPrioritizationService;
+
     @PostMapping("/prioritize")
-    public ResponseEntity<List<TodoResponse>> prioritizeTodos(Authentication authentication) {
+    public ResponseEntity<?> prioritizeTodos(@RequestParam(defaultValue = "false") boolean async,
+                                             Authentication authentication) {
+        if (async) {
+            return acceptJob(() -> aiJobService.submitPrioritization(authentication));
+        }
         List<TodoResponse> prioritizedTodos = openAiService.prioritizeTodos(authentication);
         return ResponseEntity.ok(prioritizedTodos);
     }
 
     @PostMapping("/suggest")
-    public ResponseEntity<List<AiSuggestionResponse>> generateSuggestions(Authentication authentication) {
+    public ResponseEntity<?> generateSuggestions(@RequestParam(defaultValue = "false") boolean async,
+                                                 Authentication authentication) {
+        if (async) {
+            return acceptJob(() -> aiJobService.submitSuggestions(authentication));
+        }
         List<AiSuggestionResponse> suggestions = openAiService.generateSuggestions(authentication);
         return ResponseEntity.ok(suggestions);
     }
 
+    @PostMapping(value = "/prioritize", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPrioritizedTodos(Authentication authentication) {
+        return openAiService.streamPrioritization(authentication);
+    }
+
+    @PostMapping(value = "/suggest", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSuggestions(Authentication authentication) {
+        return openAiService.streamSuggestions(authentication);
+    }
+
+    @GetMapping("/next")
+    public ResponseEntity<List<TodoResponse>> getNextActions(@RequestParam(required = false) Integer n,
+                                                             Authentication authentication) {
+        List<TodoResponse> nextActions = localPrioritizationService.getNextActions(n, authentication);
+        return ResponseEntity.ok(nextActions);
+    }
+
     @GetMapping("/suggestions")
-    public ResponseEntity<List<AiSuggestionResponse>> getUserSuggestions(Authentication authentication) {
-        List<AiSuggestionResponse> suggestions = openAiService.getUserSuggestions(authentication);
-        return ResponseEntity.ok(suggestions);
+    public ResponseEntity<?> getUserSuggestions(@RequestParam(required = false) Integer limit,
+                                                @RequestParam(required = false) String cursor,
+                                                Authentication authentication) {
+        // Without paging parameters keep returning the full list for existing clients
+        if (limit == null && cursor == null) {
+            List<AiSuggestionResponse> suggestions = openAiService.getUserSuggestions(authentication);
+            return ResponseEntity.ok(suggestions);
+        }
+
+        CursorPage<AiSuggestionResponse> page = openAiService.getUserSuggestionsPage(cursor, limit, authentication);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<?> getJob(@PathVariable String id, Authentication authentication) {
+        AiJob job = aiJobService.getJob(id, authentication);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new AuthController.MessageResponse("Job not found"));
+        }
+        return ResponseEntity.ok(new AiJobResponse(job));
+    }
+
+    @GetMapping(value = "/jobs/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamJob(@PathVariable String id, Authentication authentication) {
+        AiJob job = aiJobService.getJob(id, authentication);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        SseEmitter emitter = aiJobService.subscribe(job);
+        return ResponseEntity.ok(emitter);
+    }
+
+    private ResponseEntity<?> acceptJob(Supplier<AiJob> submission) {
+        try {
+            AiJob job = submission.get();
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/ai/jobs/" + job.getId()))
+                    .body(new AiJobResponse(job));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new AuthController.MessageResponse("AI job queue is full, please retry later"));
+        }
     }
 }
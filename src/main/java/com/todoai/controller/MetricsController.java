@@ -0,0 +1,97 @@
+package com.todoai.controller;
+
+import com.todoai.security.UserPrincipalCache;
+import com.todoai.service.AiJobService;
+import com.todoai.service.AiPrioritizationCache;
+import com.todoai.service.CacheInvalidationBus;
+import com.todoai.service.OpenAiGuard;
+import com.todoai.service.OpenAiService;
+import com.todoai.service.TodoReadModelCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
+    @Autowired
+    private AiJobService aiJobService;
+
+    @Autowired
+    private AiPrioritizationCache aiPrioritizationCache;
+
+    @Autowired
+    private OpenAiService openAiService;
+
+    @Autowired
+    private OpenAiGuard openAiGuard;
+
+    @Autowired
+    private TodoReadModelCache todoReadModelCache;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+
+        Map<String, Object> principalCache = new LinkedHashMap<>();
+        principalCache.put("hits", userPrincipalCache.getHitCount());
+        principalCache.put("misses", userPrincipalCache.getMissCount());
+        principalCache.put("size", userPrincipalCache.getSize());
+        metrics.put("principalCache", principalCache);
+
+        Map<String, Object> todoCache = new LinkedHashMap<>();
+        todoCache.put("hits", todoReadModelCache.getHitCount());
+        todoCache.put("misses", todoReadModelCache.getMissCount());
+        todoCache.put("size", todoReadModelCache.getSize());
+        metrics.put("todoCache", todoCache);
+
+        Map<String, Object> cacheInvalidation = new LinkedHashMap<>();
+        cacheInvalidation.put("listening", cacheInvalidationBus.isListening());
+        cacheInvalidation.put("published", cacheInvalidationBus.getPublishedCount());
+        cacheInvalidation.put("received", cacheInvalidationBus.getReceivedCount());
+        metrics.put("cacheInvalidation", cacheInvalidation);
+
+        Map<String, Object> aiJobs = new LinkedHashMap<>();
+        aiJobs.put("queued", aiJobService.getQueuedCount());
+        aiJobs.put("running", aiJobService.getRunningCount());
+        metrics.put("aiJobs", aiJobs);
+
+        Map<String, Object> prioritizationCache = new LinkedHashMap<>();
+        prioritizationCache.put("hits", aiPrioritizationCache.getHitCount());
+        prioritizationCache.put("misses", aiPrioritizationCache.getMissCount());
+        prioritizationCache.put("hitRatio", aiPrioritizationCache.getHitRatio());
+        prioritizationCache.put("size", aiPrioritizationCache.getSize());
+        metrics.put("prioritizationCache", prioritizationCache);
+
+        Map<String, Object> aiRequests = new LinkedHashMap<>();
+        aiRequests.put("inFlight", openAiService.getInFlightCount());
+        aiRequests.put("coalesced", openAiService.getCoalescedCallCount());
+        metrics.put("aiRequests", aiRequests);
+
+        Map<String, Object> openAiGuardMetrics = new LinkedHashMap<>();
+        openAiGuardMetrics.put("circuitState", openAiGuard.getState());
+        openAiGuardMetrics.put("activeCalls", openAiGuard.getActiveCalls());
+        openAiGuardMetrics.put("maxConcurrent", openAiGuard.getMaxConcurrent());
+        openAiGuardMetrics.put("availableRequests", openAiGuard.getAvailableRequests());
+        openAiGuardMetrics.put("availableTokens", openAiGuard.getAvailableTokens());
+        openAiGuardMetrics.put("successes", openAiGuard.getSuccessCount());
+        openAiGuardMetrics.put("failures", openAiGuard.getFailureCount());
+        openAiGuardMetrics.put("circuitRejections", openAiGuard.getCircuitRejections());
+        openAiGuardMetrics.put("bulkheadRejections", openAiGuard.getBulkheadRejections());
+        openAiGuardMetrics.put("rateLimitRejections", openAiGuard.getRateLimitRejections());
+        metrics.put("openAiGuard", openAiGuardMetrics);
+
+        return ResponseEntity.ok(metrics);
+    }
+}
@@ -1,13 +1,18 @@
 package com.todoai.controller;
 
+import com.todoai.dto.page.CursorPage;
+import com.todoai.dto.todo.TodoBatchRequest;
+import com.todoai.dto.todo.TodoBatchResponse;
 import com.todoai.dto.todo.TodoRequest;
 import com.todoai.dto.todo.TodoResponse;
 import com.todoai.service.TodoService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -19,9 +24,26 @@ public class TodoController {
     private TodoService todoService;
 
     @GetMapping
-    public ResponseEntity<List<TodoResponse>> getUserTodos(Authentication authentication) {
-        List<TodoResponse> todos = todoService.getUserTodos(authentication);
-        return ResponseEntity.ok(todos);
+    public ResponseEntity<?> getUserTodos(@RequestParam(required = false) Integer limit,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) String sort,
+                                          Authentication authentication) {
+        // Without paging parameters keep returning the full list for existing clients
+        if (limit == null && cursor == null && sort == null) {
+            List<TodoResponse> todos = todoService.getUserTodos(authentication);
+            return ResponseEntity.ok(todos);
+        }
+
+        CursorPage<TodoResponse> page = todoService.getUserTodosPage(sort, cursor, limit, authentication);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTodos(Authentication authentication) {
+        StreamingResponseBody body = out -> todoService.exportUserTodos(authentication, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @PostMapping
@@ -31,6 +53,18 @@ public class TodoController {
         return ResponseEntity.ok(todo);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<?> applyBatch(@Valid @RequestBody TodoBatchRequest batchRequest,
+                                        Authentication authentication) {
+        try {
+            TodoBatchResponse response = todoService.applyBatch(batchRequest, authentication);
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                    .body(new AuthController.MessageResponse(e.getMessage()));
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<?> updateTodo(@PathVariable Long id,
                                        @Valid @RequestBody TodoRequest todoRequest,
@@ -0,0 +1,84 @@
+package com.todoai.dto.ai;
+
+import com.todoai.service.AiJob;
+
+import java.time.LocalDateTime;
+
+public class AiJobResponse {
+    private String id;
+    private AiJob.Type type;
+    private AiJob.Status status;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+    private Object result;
+    private String error;
+
+    public AiJobResponse() {}
+
+    public AiJobResponse(AiJob job) {
+        this.id = job.getId();
+        this.type = job.getType();
+        this.status = job.getStatus();
+        this.createdAt = job.getCreatedAt();
+        this.completedAt = job.getCompletedAt();
+        this.result = job.getResult();
+        this.error = job.getError();
+    }
+
+    // Getters and setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public AiJob.Type getType() {
+        return type;
+    }
+
+    public void setType(AiJob.Type type) {
+        this.type = type;
+    }
+
+    public AiJob.Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(AiJob.Status status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public Object getResult() {
+        return result;
+    }
+
+    public void setResult(Object result) {
+        this.result = result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -4,12 +4,15 @@ import com.todoai.entity.AiSuggestion;
 import com.todoai.entity.Todo;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 public class AiSuggestionResponse {
     private Long id;
     private String suggestedTask;
     private Todo.Priority priority;
     private LocalDateTime createdAt;
+    private LocalDateTime lastSuggestedAt;
+    private UUID generationId;
 
     public AiSuggestionResponse() {}
 
@@ -18,6 +21,19 @@ public class AiSuggestionResponse {
         this.suggestedTask = aiSuggestion.getSuggestedTask();
         this.priority = aiSuggestion.getPriority();
         this.createdAt = aiSuggestion.getCreatedAt();
+        this.lastSuggestedAt = aiSuggestion.getLastSuggestedAt();
+        this.generationId = aiSuggestion.getGenerationId();
+    }
+
+    // Used by JPQL constructor projections, which skip loading AiSuggestion entities
+    public AiSuggestionResponse(Long id, String suggestedTask, Todo.Priority priority, LocalDateTime createdAt,
+                                LocalDateTime lastSuggestedAt, UUID generationId) {
+        this.id = id;
+        this.suggestedTask = suggestedTask;
+        this.priority = priority;
+        this.createdAt = createdAt;
+        this.lastSuggestedAt = lastSuggestedAt;
+        this.generationId = generationId;
     }
 
     // Getters and setters
@@ -52,4 +68,20 @@ public class AiSuggestionResponse {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public LocalDateTime getLastSuggestedAt() {
+        return lastSuggestedAt;
+    }
+
+    public void setLastSuggestedAt(LocalDateTime lastSuggestedAt) {
+        this.lastSuggestedAt = lastSuggestedAt;
+    }
+
+    public UUID getGenerationId() {
+        return generationId;
+    }
+
+    public void setGenerationId(UUID generationId) {
+        this.generationId = generationId;
+    }
 }
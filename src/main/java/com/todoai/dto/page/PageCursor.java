@@ -0,0 +1,83 @@
+package com.todoai.dto.page;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor: the sort key values of the last row of a page, tagged with the ordering
+ * they belong to and encoded as URL-safe base64.
+ */
+public final class PageCursor {
+    private static final String SEPARATOR = "|";
+
+    private final String ordering;
+    private final String[] values;
+
+    private PageCursor(String ordering, String[] values) {
+        this.ordering = ordering;
+        this.values = values;
+    }
+
+    public static String encode(String ordering, Object... values) {
+        StringBuilder raw = new StringBuilder(ordering);
+        for (Object value : values) {
+            raw.append(SEPARATOR).append(value != null ? value.toString() : "");
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String cursor, String expectedOrdering, int expectedValues) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+
+        String[] parts = raw.split("\\" + SEPARATOR, -1);
+        if (parts.length != expectedValues + 1 || !parts[0].equals(expectedOrdering)) {
+            throw new RuntimeException("Invalid cursor");
+        }
+
+        String[] values = new String[expectedValues];
+        System.arraycopy(parts, 1, values, 0, expectedValues);
+        return new PageCursor(parts[0], values);
+    }
+
+    public String getOrdering() {
+        return ordering;
+    }
+
+    public boolean isNull(int index) {
+        return values[index].isEmpty();
+    }
+
+    public long getLong(int index) {
+        try {
+            return Long.parseLong(values[index]);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    public int getInt(int index) {
+        try {
+            return Integer.parseInt(values[index]);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    public LocalDateTime getDateTime(int index) {
+        if (isNull(index)) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(values[index]);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.todoai.dto.todo;
+
+public class TodoBatchOperation {
+    public enum Type {
+        CREATE, UPDATE, COMPLETE, DELETE
+    }
+
+    private Type op;
+
+    // Target todo for UPDATE, COMPLETE and DELETE
+    private Long id;
+
+    // Todo fields for CREATE and UPDATE
+    private TodoRequest todo;
+
+    public TodoBatchOperation() {}
+
+    public TodoBatchOperation(Type op, Long id, TodoRequest todo) {
+        this.op = op;
+        this.id = id;
+        this.todo = todo;
+    }
+
+    // Getters and setters
+    public Type getOp() {
+        return op;
+    }
+
+    public void setOp(Type op) {
+        this.op = op;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public TodoRequest getTodo() {
+        return todo;
+    }
+
+    public void setTodo(TodoRequest todo) {
+        this.todo = todo;
+    }
+}
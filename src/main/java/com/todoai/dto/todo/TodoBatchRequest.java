@@ -0,0 +1,25 @@
+package com.todoai.dto.todo;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public class TodoBatchRequest {
+    @NotEmpty(message = "At least one operation is required")
+    private List<TodoBatchOperation> operations;
+
+    public TodoBatchRequest() {}
+
+    public TodoBatchRequest(List<TodoBatchOperation> operations) {
+        this.operations = operations;
+    }
+
+    // Getters and setters
+    public List<TodoBatchOperation> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<TodoBatchOperation> operations) {
+        this.operations = operations;
+    }
+}
@@ -0,0 +1,47 @@
+package com.todoai.dto.todo;
+
+import java.util.List;
+
+public class TodoBatchResponse {
+    private int succeeded;
+    private int failed;
+    private List<TodoBatchResult> results;
+
+    public TodoBatchResponse() {}
+
+    public TodoBatchResponse(List<TodoBatchResult> results) {
+        this.results = results;
+        for (TodoBatchResult result : results) {
+            if (TodoBatchResult.STATUS_OK.equals(result.getStatus())) {
+                succeeded++;
+            } else {
+                failed++;
+            }
+        }
+    }
+
+    // Getters and setters
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<TodoBatchResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<TodoBatchResult> results) {
+        this.results = results;
+    }
+}
@@ -0,0 +1,82 @@
+package com.todoai.dto.todo;
+
+public class TodoBatchResult {
+    public static final String STATUS_OK = "OK";
+    public static final String STATUS_ERROR = "ERROR";
+
+    private int index;
+    private TodoBatchOperation.Type op;
+    private Long id;
+    private String status;
+    private TodoResponse todo;
+    private String message;
+
+    public TodoBatchResult() {}
+
+    public TodoBatchResult(int index, TodoBatchOperation.Type op, Long id, String status,
+                           TodoResponse todo, String message) {
+        this.index = index;
+        this.op = op;
+        this.id = id;
+        this.status = status;
+        this.todo = todo;
+        this.message = message;
+    }
+
+    public static TodoBatchResult ok(int index, TodoBatchOperation.Type op, Long id, TodoResponse todo) {
+        return new TodoBatchResult(index, op, id, STATUS_OK, todo, null);
+    }
+
+    public static TodoBatchResult error(int index, TodoBatchOperation.Type op, Long id, String message) {
+        return new TodoBatchResult(index, op, id, STATUS_ERROR, null, message);
+    }
+
+    // Getters and setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public TodoBatchOperation.Type getOp() {
+        return op;
+    }
+
+    public void setOp(TodoBatchOperation.Type op) {
+        this.op = op;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public TodoResponse getTodo() {
+        return todo;
+    }
+
+    public void setTodo(TodoResponse todo) {
+        this.todo = todo;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
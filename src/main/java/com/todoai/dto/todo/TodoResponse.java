@@ -4,17 +4,18 @@ import com.todoai.entity.Todo;
 
 import java.time.LocalDateTime;
 
+/**
+ * Immutable: instances are shared between readers through the todo read model cache.
+ */
 public class TodoResponse {
-    private Long id;
-    private String title;
-    private String description;
-    private Todo.Priority priority;
-    private boolean isCompleted;
-    private LocalDateTime dueDate;
-    private LocalDateTime createdAt;
-    private LocalDateTime updatedAt;
-
-    public TodoResponse() {}
+    private final Long id;
+    private final String title;
+    private final String description;
+    private final Todo.Priority priority;
+    private final boolean isCompleted;
+    private final LocalDateTime dueDate;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
 
     public TodoResponse(Todo todo) {
         this.id = todo.getId();
@@ -27,68 +28,49 @@ public class TodoResponse {
         this.updatedAt = todo.getUpdatedAt();
     }
 
-    // Getters and setters
-    public Long getId() {
-        return id;
+    // Used by JPQL constructor projections, which skip loading Todo entities
+    public TodoResponse(Long id, String title, String description, Todo.Priority priority, boolean isCompleted,
+                        LocalDateTime dueDate, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.priority = priority;
+        this.isCompleted = isCompleted;
+        this.dueDate = dueDate;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
     }
 
-    public void setId(Long id) {
-        this.id = id;
+    // Getters
+    public Long getId() {
+        return id;
     }
 
     public String getTitle() {
         return title;
     }
 
-    public void setTitle(String title) {
-        this.title = title;
-    }
-
     public String getDescription() {
         return description;
     }
 
-    public void setDescription(String description) {
-        this.description = description;
-    }
-
     public Todo.Priority getPriority() {
         return priority;
     }
 
-    public void setPriority(Todo.Priority priority) {
-        this.priority = priority;
-    }
-
     public boolean isCompleted() {
         return isCompleted;
     }
 
-    public void setCompleted(boolean completed) {
-        isCompleted = completed;
-    }
-
     public LocalDateTime getDueDate() {
         return dueDate;
     }
 
-    public void setDueDate(LocalDateTime dueDate) {
-        this.dueDate = dueDate;
-    }
-
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
 
-    public void setCreatedAt(LocalDateTime createdAt) {
-        this.createdAt = createdAt;
-    }
-
     public LocalDateTime getUpdatedAt() {
         return updatedAt;
     }
-
-    public void setUpdatedAt(LocalDateTime updatedAt) {
-        this.updatedAt = updatedAt;
-    }
 }
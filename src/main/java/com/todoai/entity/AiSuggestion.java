@@ -4,17 +4,31 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.PartitionKey;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.regex.Pattern;
 
 @Entity
 @Table(name = "ai_suggestions")
 public class AiSuggestion {
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Pooled sequence so a generation's rows are inserted in one JDBC batch; the sequence must use INCREMENT BY 50
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ai_suggestions_id_seq")
+    @SequenceGenerator(name = "ai_suggestions_id_seq", sequenceName = "ai_suggestions_id_seq", allocationSize = 50)
     private Long id;
 
+    // Partition key when the table is hash-partitioned: entity updates and deletes also filter on it
     @NotNull
+    @PartitionKey
     @Column(name = "user_id")
     private Long userId;
 
@@ -26,9 +40,23 @@ public class AiSuggestion {
     @Enumerated(EnumType.STRING)
     private Todo.Priority priority = Todo.Priority.MEDIUM;
 
+    @Column(name = "priority_rank", nullable = false)
+    private int priorityRank = Todo.Priority.MEDIUM.getRank();
+
+    // SHA-256 of the normalized task text; unique per user so repeat suggestions update one row
+    @Column(name = "task_hash", nullable = false, length = 64)
+    private String taskHash;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    @Column(name = "last_suggested_at", nullable = false)
+    private LocalDateTime lastSuggestedAt;
+
+    // Groups the rows written by one suggestion request
+    @Column(name = "generation_id")
+    private UUID generationId;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", insertable = false, updatable = false)
     private User user;
@@ -38,13 +66,44 @@ public class AiSuggestion {
     public AiSuggestion(Long userId, String suggestedTask, Todo.Priority priority) {
         this.userId = userId;
         this.suggestedTask = suggestedTask;
+        this.taskHash = hashOf(suggestedTask);
         this.priority = priority;
+        this.priorityRank = Todo.Priority.rankOf(priority);
         this.createdAt = LocalDateTime.now();
+        this.lastSuggestedAt = this.createdAt;
+    }
+
+    /**
+     * Hash of the task text ignoring case, punctuation and spacing, so near-identical suggestions collide.
+     */
+    public static String hashOf(String suggestedTask) {
+        String normalized = NON_ALPHANUMERIC.matcher(suggestedTask == null ? "" : suggestedTask.toLowerCase(Locale.ROOT))
+                .replaceAll(" ")
+                .trim();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now();
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+        if (lastSuggestedAt == null) {
+            lastSuggestedAt = createdAt;
+        }
+        taskHash = hashOf(suggestedTask);
+        priorityRank = Todo.Priority.rankOf(priority);
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        priorityRank = Todo.Priority.rankOf(priority);
+        taskHash = hashOf(suggestedTask);
     }
 
     // Getters and setters
@@ -70,6 +129,11 @@ public class AiSuggestion {
 
     public void setSuggestedTask(String suggestedTask) {
         this.suggestedTask = suggestedTask;
+        this.taskHash = hashOf(suggestedTask);
+    }
+
+    public String getTaskHash() {
+        return taskHash;
     }
 
     public Todo.Priority getPriority() {
@@ -78,6 +142,11 @@ public class AiSuggestion {
 
     public void setPriority(Todo.Priority priority) {
         this.priority = priority;
+        this.priorityRank = Todo.Priority.rankOf(priority);
+    }
+
+    public int getPriorityRank() {
+        return priorityRank;
     }
 
     public LocalDateTime getCreatedAt() {
@@ -88,6 +157,22 @@ public class AiSuggestion {
         this.createdAt = createdAt;
     }
 
+    public LocalDateTime getLastSuggestedAt() {
+        return lastSuggestedAt;
+    }
+
+    public void setLastSuggestedAt(LocalDateTime lastSuggestedAt) {
+        this.lastSuggestedAt = lastSuggestedAt;
+    }
+
+    public UUID getGenerationId() {
+        return generationId;
+    }
+
+    public void setGenerationId(UUID generationId) {
+        this.generationId = generationId;
+    }
+
     public User getUser() {
         return user;
     }
@@ -4,17 +4,22 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.PartitionKey;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "todos")
 public class Todo {
+    // Pooled sequence so inserts can be JDBC-batched; the sequence must use INCREMENT BY 50
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "todos_id_seq")
+    @SequenceGenerator(name = "todos_id_seq", sequenceName = "todos_id_seq", allocationSize = 50)
     private Long id;
 
+    // Partition key when the table is hash-partitioned: entity updates and deletes also filter on it
     @NotNull
+    @PartitionKey
     @Column(name = "user_id")
     private Long userId;
 
@@ -28,6 +33,10 @@ public class Todo {
     @Enumerated(EnumType.STRING)
     private Priority priority = Priority.MEDIUM;
 
+    // Persisted copy of priority.getRank() so priority ordering can be served by an index
+    @Column(name = "priority_rank", nullable = false)
+    private int priorityRank = Priority.MEDIUM.getRank();
+
     @Column(name = "is_completed")
     private boolean isCompleted = false;
 
@@ -45,7 +54,25 @@ public class Todo {
     private User user;
 
     public enum Priority {
-        LOW, MEDIUM, HIGH, URGENT
+        LOW(4), MEDIUM(3), HIGH(2), URGENT(1);
+
+        // Rank given to a missing priority, after every real one
+        public static final int UNRANKED = 5;
+
+        // Sort rank, most urgent first
+        private final int rank;
+
+        Priority(int rank) {
+            this.rank = rank;
+        }
+
+        public int getRank() {
+            return rank;
+        }
+
+        public static int rankOf(Priority priority) {
+            return priority != null ? priority.getRank() : UNRANKED;
+        }
     }
 
     public Todo() {}
@@ -55,6 +82,7 @@ public class Todo {
         this.title = title;
         this.description = description;
         this.priority = priority;
+        this.priorityRank = Priority.rankOf(priority);
         this.dueDate = dueDate;
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
@@ -64,11 +92,13 @@ public class Todo {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        priorityRank = Priority.rankOf(priority);
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        priorityRank = Priority.rankOf(priority);
     }
 
     // Getters and setters
@@ -110,6 +140,11 @@ public class Todo {
 
     public void setPriority(Priority priority) {
         this.priority = priority;
+        this.priorityRank = Priority.rankOf(priority);
+    }
+
+    public int getPriorityRank() {
+        return priorityRank;
     }
 
     public boolean isCompleted() {
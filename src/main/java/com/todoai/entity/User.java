@@ -1,5 +1,6 @@
 package com.todoai.entity;
 
+import com.todoai.security.UserPrincipalCacheListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -13,6 +14,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserPrincipalCacheListener.class)
 public class User implements UserDetails {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,61 @@
+package com.todoai.event;
+
+/**
+ * A compact "(entity, userId)" invalidation exchanged between nodes, encoded as
+ * {@code "<entity>:<userId>:<origin node>"} so it fits comfortably in a NOTIFY payload.
+ */
+public class CacheInvalidation {
+    public enum Entity {
+        USER('u'),
+        TODOS('t');
+
+        private final char code;
+
+        Entity(char code) {
+            this.code = code;
+        }
+
+        static Entity fromCode(char code) {
+            for (Entity entity : values()) {
+                if (entity.code == code) {
+                    return entity;
+                }
+            }
+            throw new IllegalArgumentException("Unknown cache entity code: " + code);
+        }
+    }
+
+    private final Entity entity;
+    private final Long userId;
+    private final String origin;
+
+    public CacheInvalidation(Entity entity, Long userId, String origin) {
+        this.entity = entity;
+        this.userId = userId;
+        this.origin = origin;
+    }
+
+    public String encode() {
+        return entity.code + ":" + userId + ":" + origin;
+    }
+
+    public static CacheInvalidation decode(String payload) {
+        String[] parts = payload.split(":", 3);
+        if (parts.length != 3 || parts[0].length() != 1) {
+            throw new IllegalArgumentException("Malformed cache invalidation: " + payload);
+        }
+        return new CacheInvalidation(Entity.fromCode(parts[0].charAt(0)), Long.valueOf(parts[1]), parts[2]);
+    }
+
+    public Entity getEntity() {
+        return entity;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+}
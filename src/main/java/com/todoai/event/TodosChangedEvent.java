@@ -0,0 +1,50 @@
+package com.todoai.event;
+
+import com.todoai.dto.todo.TodoResponse;
+
+import java.util.List;
+
+/**
+ * Published by TodoService whenever a user's todos are created, changed or deleted. When the change
+ * is described (the todos' new state and the deleted ids), listeners can apply it instead of
+ * discarding everything they hold for the user.
+ */
+public class TodosChangedEvent {
+    private final Long userId;
+    private final List<TodoResponse> upserted;
+    private final List<Long> deletedIds;
+
+    public TodosChangedEvent(Long userId) {
+        this(userId, null, null);
+    }
+
+    public TodosChangedEvent(Long userId, List<TodoResponse> upserted, List<Long> deletedIds) {
+        this.userId = userId;
+        this.upserted = upserted;
+        this.deletedIds = deletedIds;
+    }
+
+    public static TodosChangedEvent upserted(Long userId, TodoResponse todo) {
+        return new TodosChangedEvent(userId, List.of(todo), List.of());
+    }
+
+    public static TodosChangedEvent deleted(Long userId, Long todoId) {
+        return new TodosChangedEvent(userId, List.of(), List.of(todoId));
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public boolean isDescribed() {
+        return upserted != null && deletedIds != null;
+    }
+
+    public List<TodoResponse> getUpserted() {
+        return upserted;
+    }
+
+    public List<Long> getDeletedIds() {
+        return deletedIds;
+    }
+}
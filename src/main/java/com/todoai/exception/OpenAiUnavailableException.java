@@ -0,0 +1,10 @@
+package com.todoai.exception;
+
+/**
+ * Thrown when an OpenAI call is refused locally (open circuit, full bulkhead or exhausted rate limit).
+ */
+public class OpenAiUnavailableException extends RuntimeException {
+    public OpenAiUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -1,13 +1,70 @@
 package com.todoai.repository;
 
+import com.todoai.dto.ai.AiSuggestionResponse;
 import com.todoai.entity.AiSuggestion;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface AiSuggestionRepository extends JpaRepository<AiSuggestion, Long> {
-    List<AiSuggestion> findByUserIdOrderByCreatedAtDesc(Long userId);
-    void deleteByUserId(Long userId);
-}
+    // Read paths select straight into the response DTO instead of loading entities
+    String SELECT_RESPONSE = "SELECT new com.todoai.dto.ai.AiSuggestionResponse(s.id, s.suggestedTask, " +
+                             "s.priority, s.createdAt, s.lastSuggestedAt, s.generationId) FROM AiSuggestion s ";
+
+    List<AiSuggestion> findByUserIdAndTaskHashIn(Long userId, Collection<String> taskHashes);
+
+    @Query(SELECT_RESPONSE + "WHERE s.userId = :userId ORDER BY s.lastSuggestedAt DESC, s.id DESC")
+    List<AiSuggestionResponse> findResponsesByUserId(@Param("userId") Long userId);
+
+    // Keyset pages ordered by (last_suggested_at DESC, id DESC)
+    @Query(SELECT_RESPONSE + "WHERE s.userId = :userId ORDER BY s.lastSuggestedAt DESC, s.id DESC")
+    List<AiSuggestionResponse> findPageByUserId(@Param("userId") Long userId, Pageable pageable);
 
+    @Query(SELECT_RESPONSE + "WHERE s.userId = :userId AND " +
+           "(s.lastSuggestedAt < :lastSuggestedAt OR (s.lastSuggestedAt = :lastSuggestedAt AND s.id < :id)) " +
+           "ORDER BY s.lastSuggestedAt DESC, s.id DESC")
+    List<AiSuggestionResponse> findPageByUserIdAfter(@Param("userId") Long userId,
+                                                     @Param("lastSuggestedAt") LocalDateTime lastSuggestedAt,
+                                                     @Param("id") Long id,
+                                                     Pageable pageable);
+
+    // Single DELETE statement instead of loading and removing every entity
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM AiSuggestion s WHERE s.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    // Retention purges delete at most :batchSize rows per statement to keep transactions and locks short.
+    // Rows are matched on (user_id, id), the primary key, so a partitioned table probes one partition per row
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM ai_suggestions WHERE (user_id, id) IN (" +
+                   "SELECT user_id, id FROM ai_suggestions WHERE last_suggested_at < :cutoff LIMIT :batchSize)",
+           nativeQuery = true)
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+
+    // Counted once per purge run from idx_ai_suggestions_user_last_suggested; the per-user deletes below
+    // then never rescan the table
+    @Query(value = "SELECT user_id FROM ai_suggestions GROUP BY user_id HAVING count(*) > :keep ORDER BY user_id",
+           nativeQuery = true)
+    List<Long> findUserIdsWithMoreThan(@Param("keep") int keep);
+
+    // The user's surplus is read from idx_ai_suggestions_user_last_suggested past its first :keep entries
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM ai_suggestions WHERE user_id = :userId AND id IN (" +
+                   "SELECT id FROM ai_suggestions WHERE user_id = :userId " +
+                   "ORDER BY last_suggested_at DESC, id DESC OFFSET :keep LIMIT :batchSize)",
+           nativeQuery = true)
+    int deleteBeyondNewestForUser(@Param("userId") Long userId, @Param("keep") int keep,
+                                  @Param("batchSize") int batchSize);
+}
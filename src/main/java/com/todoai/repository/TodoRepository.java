@@ -1,22 +1,100 @@
 package com.todoai.repository;
 
+import com.todoai.dto.todo.TodoResponse;
 import com.todoai.entity.Todo;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TodoRepository extends JpaRepository<Todo, Long> {
-    List<Todo> findByUserIdOrderByCreatedAtDesc(Long userId);
+    // Read paths select straight into the response DTO: no entities, persistence context entries or snapshots
+    String SELECT_RESPONSE = "SELECT new com.todoai.dto.todo.TodoResponse(t.id, t.title, t.description, " +
+                             "t.priority, t.isCompleted, t.dueDate, t.createdAt, t.updatedAt) FROM Todo t ";
+
     List<Todo> findByUserIdAndIsCompletedOrderByCreatedAtDesc(Long userId, boolean isCompleted);
     Optional<Todo> findByIdAndUserId(Long id, Long userId);
-    
-    @Query("SELECT t FROM Todo t WHERE t.userId = :userId ORDER BY " +
-           "CASE t.priority WHEN 'URGENT' THEN 1 WHEN 'HIGH' THEN 2 WHEN 'MEDIUM' THEN 3 WHEN 'LOW' THEN 4 END, " +
-           "t.dueDate ASC NULLS LAST, t.createdAt DESC")
-    List<Todo> findByUserIdOrderByPriorityAndDueDate(@Param("userId") Long userId);
+    List<Todo> findByUserIdAndIdIn(Long userId, Collection<Long> ids);
+
+    @Query(SELECT_RESPONSE + "WHERE t.userId = :userId ORDER BY t.createdAt DESC, t.id DESC")
+    List<TodoResponse> findResponsesByUserId(@Param("userId") Long userId);
+
+    @Query(SELECT_RESPONSE + "WHERE t.userId = :userId ORDER BY " +
+           "t.priorityRank, t.dueDate ASC NULLS LAST, t.createdAt DESC, t.id DESC")
+    List<TodoResponse> findByUserIdOrderByPriorityAndDueDate(@Param("userId") Long userId);
+
+    // Keyset pages ordered by (created_at DESC, id DESC)
+    @Query(SELECT_RESPONSE + "WHERE t.userId = :userId ORDER BY t.createdAt DESC, t.id DESC")
+    List<TodoResponse> findPageByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(SELECT_RESPONSE + "WHERE t.userId = :userId AND " +
+           "(t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TodoResponse> findPageByUserIdAfter(@Param("userId") Long userId,
+                                             @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") Long id,
+                                             Pageable pageable);
+
+    // Keyset pages ordered by (priority rank, due_date NULLS LAST, created_at DESC, id DESC)
+    @Query(SELECT_RESPONSE + "WHERE t.userId = :userId ORDER BY " +
+           "t.priorityRank, t.dueDate ASC NULLS LAST, t.createdAt DESC, t.id DESC")
+    List<TodoResponse> findPriorityPageByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(SELECT_RESPONSE + "WHERE t.userId = :userId AND " +
+           "(t.priorityRank > :rank OR (t.priorityRank = :rank AND " +
+           "(t.dueDate > :dueDate OR t.dueDate IS NULL OR (t.dueDate = :dueDate AND " +
+           "(t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)))))) " +
+           "ORDER BY t.priorityRank, t.dueDate ASC NULLS LAST, t.createdAt DESC, t.id DESC")
+    List<TodoResponse> findPriorityPageByUserIdAfter(@Param("userId") Long userId,
+                                                     @Param("rank") int rank,
+                                                     @Param("dueDate") LocalDateTime dueDate,
+                                                     @Param("createdAt") LocalDateTime createdAt,
+                                                     @Param("id") Long id,
+                                                     Pageable pageable);
+
+    @Query(SELECT_RESPONSE + "WHERE t.userId = :userId AND " +
+           "(t.priorityRank > :rank OR (t.priorityRank = :rank AND t.dueDate IS NULL AND " +
+           "(t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)))) " +
+           "ORDER BY t.priorityRank, t.dueDate ASC NULLS LAST, t.createdAt DESC, t.id DESC")
+    List<TodoResponse> findPriorityPageByUserIdAfterUndated(@Param("userId") Long userId,
+                                                            @Param("rank") int rank,
+                                                            @Param("createdAt") LocalDateTime createdAt,
+                                                            @Param("id") Long id,
+                                                            Pageable pageable);
+
+    // Server-side cursor for exports; must be consumed inside a transaction and closed
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_RESPONSE + "WHERE t.userId = :userId ORDER BY t.createdAt DESC, t.id DESC")
+    Stream<TodoResponse> streamByUserId(@Param("userId") Long userId);
+
+    // Single-statement completion updates; RETURNING hands back the updated row without a second query.
+    // The hint loads that row as a read-only entity (no snapshot, no dirty check at flush) because callers
+    // only map it to a response; it does not make the statement or its transaction read-only
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query(value = "UPDATE todos SET is_completed = true, updated_at = :now " +
+                   "WHERE id = :id AND user_id = :userId RETURNING *", nativeQuery = true)
+    Optional<Todo> completeByIdAndUserId(@Param("id") Long id,
+                                         @Param("userId") Long userId,
+                                         @Param("now") LocalDateTime now);
+
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query(value = "UPDATE todos SET is_completed = NOT is_completed, updated_at = :now " +
+                   "WHERE id = :id AND user_id = :userId RETURNING *", nativeQuery = true)
+    Optional<Todo> toggleCompletionByIdAndUserId(@Param("id") Long id,
+                                                 @Param("userId") Long userId,
+                                                 @Param("now") LocalDateTime now);
 }
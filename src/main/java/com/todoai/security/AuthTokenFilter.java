@@ -1,5 +1,6 @@
 package com.todoai.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,7 +11,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -22,7 +22,7 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     private JwtUtils jwtUtils;
 
     @Autowired
-    private UserDetailsService userDetailsService;
+    private UserPrincipalCache userPrincipalCache;
 
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
@@ -36,12 +36,13 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             String jwt = parseJwt(request);
             logger.debug("Extracted JWT token: {}", jwt != null ? "Present" : "Not found");
             
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
+            Claims claims = jwt != null ? jwtUtils.parseAndValidateJwtToken(jwt) : null;
+            if (claims != null) {
                 logger.debug("JWT token is valid");
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
+                String username = claims.getSubject();
                 logger.debug("Username from JWT: {}", username);
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                UserDetails userDetails = userPrincipalCache.loadUserByUsername(username);
                 logger.debug("UserDetails loaded for: {}", username);
                 
                 UsernamePasswordAuthenticationToken authentication =
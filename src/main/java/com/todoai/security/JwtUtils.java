@@ -1,8 +1,12 @@
 package com.todoai.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,7 +14,8 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
-import java.security.Key;
+import javax.crypto.SecretKey;
+import java.time.Duration;
 import java.util.Date;
 
 @Component
@@ -23,6 +28,55 @@ public class JwtUtils {
     @Value("${spring.security.jwt.expiration}")
     private int jwtExpirationMs;
 
+    @Value("${todoai.cache.jwt.maximum-size:10000}")
+    private long verifiedTokenCacheSize;
+
+    @Value("${todoai.cache.jwt.ttl:10m}")
+    private Duration verifiedTokenTtl;
+
+    private SecretKey signingKey;
+
+    private JwtParser jwtParser;
+
+    // Tokens whose signature has already been verified, each kept until the earlier of its expiry or the TTL
+    private Cache<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        try {
+            signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+            jwtParser = Jwts.parser().verifyWith(signingKey).build();
+        } catch (RuntimeException e) {
+            logger.error("JWT secret could not be turned into a signing key, token operations will fail: {}", e.getMessage());
+        }
+
+        long maxTtlNanos = verifiedTokenTtl.toNanos();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedTokenCacheSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String token, Claims claims, long currentTime) {
+                        Date expiration = claims.getExpiration();
+                        if (expiration == null) {
+                            return maxTtlNanos;
+                        }
+                        long untilExpiryNanos = Duration.ofMillis(expiration.getTime() - System.currentTimeMillis()).toNanos();
+                        return Math.max(0, Math.min(maxTtlNanos, untilExpiryNanos));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
     public String generateJwtToken(Authentication authentication) {
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
 
@@ -34,29 +88,52 @@ public class JwtUtils {
                 .compact();
     }
 
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    private SecretKey key() {
+        if (signingKey == null) {
+            throw new IllegalStateException("JWT signing key is not configured");
+        }
+        return signingKey;
     }
 
-    public String getUserNameFromJwtToken(String token) {
-        return Jwts.parser().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().getSubject();
-    }
+    /**
+     * Verifies the token once and returns its claims, or {@code null} if the token is not valid.
+     */
+    public Claims parseAndValidateJwtToken(String authToken) {
+        Claims cached = verifiedTokens.getIfPresent(authToken);
+        if (cached != null) {
+            return cached;
+        }
+
+        if (jwtParser == null) {
+            logger.error("JWT signing key is not configured, cannot validate token");
+            return null;
+        }
 
-    public boolean validateJwtToken(String authToken) {
         try {
-            Jwts.parser().setSigningKey(key()).build().parseClaimsJws(authToken);
-            return true;
+            Claims claims = jwtParser.parseSignedClaims(authToken).getPayload();
+            verifiedTokens.put(authToken, claims);
+            return claims;
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
             logger.error("JWT token is expired: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
             logger.error("JWT token is unsupported: {}", e.getMessage());
+        } catch (JwtException e) {
+            logger.error("JWT token failed verification: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
 
-        return false;
+        return null;
+    }
+
+    public String getUserNameFromJwtToken(String token) {
+        Claims claims = parseAndValidateJwtToken(token);
+        return claims != null ? claims.getSubject() : null;
+    }
+
+    public boolean validateJwtToken(String authToken) {
+        return parseAndValidateJwtToken(authToken) != null;
     }
 }
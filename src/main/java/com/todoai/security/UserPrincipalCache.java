@@ -0,0 +1,104 @@
+package com.todoai.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.todoai.entity.User;
+import com.todoai.service.UserDetailsServiceImpl;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, TTL-evicting cache of principals resolved by {@link AuthTokenFilter}.
+ * Only successful lookups are cached; unknown usernames always go to the repository.
+ */
+@Component
+public class UserPrincipalCache {
+    private static final Logger logger = LoggerFactory.getLogger(UserPrincipalCache.class);
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Value("${todoai.cache.principal.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${todoai.cache.principal.ttl:5m}")
+    private Duration ttl;
+
+    private Cache<String, UserDetails> cache;
+
+    // Bumped on every invalidation so a load that raced with one does not cache what it read. A single
+    // counter because invalidateUserId does not know the username; user changes are rare enough
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        logger.info("Principal cache initialized (maximumSize: {}, ttl: {})", maximumSize, ttl);
+    }
+
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        UserDetails cached = cache.getIfPresent(username);
+        if (cached != null) {
+            return cached;
+        }
+        // Load outside of cache.get(key, loader): that runs the query while holding a map lock,
+        // which pins the carrier thread when running on virtual threads
+        long versionBefore = invalidations.get();
+        UserDetails loaded = userDetailsService.loadUserByUsername(username);
+        cache.asMap().compute(username, (key, current) -> {
+            if (current != null) {
+                return current;
+            }
+            return invalidations.get() == versionBefore ? loaded : null;
+        });
+        return loaded;
+    }
+
+    public void invalidate(String username) {
+        if (username != null) {
+            invalidations.incrementAndGet();
+            cache.invalidate(username);
+            logger.debug("Invalidated cached principal for user: {}", username);
+        }
+    }
+
+    public void invalidateUserId(Long userId) {
+        if (userId != null) {
+            invalidations.incrementAndGet();
+            cache.asMap().values().removeIf(principal ->
+                    principal instanceof User && userId.equals(((User) principal).getId()));
+            logger.debug("Invalidated cached principal for user ID: {}", userId);
+        }
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+        logger.debug("Invalidated all cached principals");
+    }
+
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    public long getSize() {
+        return cache.estimatedSize();
+    }
+}
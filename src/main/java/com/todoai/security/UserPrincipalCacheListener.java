@@ -0,0 +1,49 @@
+package com.todoai.security;
+
+import com.todoai.entity.User;
+import com.todoai.event.CacheInvalidation;
+import com.todoai.service.CacheInvalidationBus;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener that evicts a user's cached principal whenever the user is changed or deleted,
+ * on this node and, through the {@link CacheInvalidationBus}, on every other node.
+ */
+public class UserPrincipalCacheListener {
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        Long userId = user.getId();
+        String username = user.getUsername();
+
+        // Sent on the flushing transaction's connection: Postgres delivers it to other nodes only on commit
+        cacheInvalidationBus.publish(CacheInvalidation.Entity.USER, userId);
+
+        // Evict after commit so a concurrent request cannot re-cache the old row
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId, username);
+                }
+            });
+        } else {
+            evict(userId, username);
+        }
+    }
+
+    private void evict(Long userId, String username) {
+        userPrincipalCache.invalidate(username);
+        userPrincipalCache.invalidateUserId(userId);
+    }
+}
@@ -0,0 +1,93 @@
+package com.todoai.service;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A queued or running AI operation whose result is fetched later by polling or over SSE.
+ */
+public class AiJob {
+    public enum Type {
+        PRIORITIZE, SUGGEST
+    }
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final Long userId;
+    private final Type type;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private final CompletableFuture<AiJob> completion = new CompletableFuture<>();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile LocalDateTime completedAt;
+    private volatile Object result;
+    private volatile String error;
+
+    public AiJob(Long userId, Type type) {
+        this.userId = userId;
+        this.type = type;
+    }
+
+    void markRunning() {
+        status = Status.RUNNING;
+    }
+
+    void succeed(Object result) {
+        this.result = result;
+        this.completedAt = LocalDateTime.now();
+        this.status = Status.SUCCEEDED;
+        completion.complete(this);
+    }
+
+    void fail(String error) {
+        this.error = error;
+        this.completedAt = LocalDateTime.now();
+        this.status = Status.FAILED;
+        completion.complete(this);
+    }
+
+    public boolean isDone() {
+        return status == Status.SUCCEEDED || status == Status.FAILED;
+    }
+
+    // Getters
+    public String getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public CompletableFuture<AiJob> getCompletion() {
+        return completion;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public Object getResult() {
+        return result;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,192 @@
+package com.todoai.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.todoai.dto.ai.AiJobResponse;
+import com.todoai.entity.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs AI operations on a bounded executor so request threads are not held while OpenAI responds.
+ * A user has at most one queued or running job per operation; repeat submissions get the existing job.
+ */
+@Service
+public class AiJobService {
+    private static final Logger logger = LoggerFactory.getLogger(AiJobService.class);
+
+    @Autowired
+    private OpenAiService openAiService;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${openai.jobs.threads:4}")
+    private int threads;
+
+    @Value("${openai.jobs.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${openai.jobs.retention:10m}")
+    private Duration retention;
+
+    @Value("${openai.jobs.sse-timeout:2m}")
+    private Duration sseTimeout;
+
+    private ThreadPoolExecutor executor;
+
+    // Every job, kept for polling until the retention period passes
+    private Cache<String, AiJob> jobs;
+
+    // Queued or running job per user and operation, used for deduplication
+    private final Map<String, AiJob> activeJobs = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        boolean virtual = Threading.VIRTUAL.isActive(environment);
+        ThreadFactory threadFactory;
+        if (virtual) {
+            // Workers are cheap virtual threads; the pool size only bounds concurrent AI calls
+            threadFactory = new VirtualThreadTaskExecutor("ai-job-").getVirtualThreadFactory();
+        } else {
+            AtomicInteger threadCount = new AtomicInteger();
+            threadFactory = runnable -> {
+                Thread thread = new Thread(runnable, "ai-job-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        jobs = Caffeine.newBuilder()
+                .expireAfterWrite(retention)
+                .build();
+        logger.info("AI job executor started (threads: {}, queue capacity: {}, virtual threads: {})",
+                threads, queueCapacity, virtual);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public AiJob submitPrioritization(Authentication authentication) {
+        return submit(AiJob.Type.PRIORITIZE, authentication, () -> openAiService.prioritizeTodos(authentication));
+    }
+
+    public AiJob submitSuggestions(Authentication authentication) {
+        return submit(AiJob.Type.SUGGEST, authentication, () -> openAiService.generateSuggestions(authentication));
+    }
+
+    /**
+     * Returns the job if it exists and belongs to the user, otherwise {@code null}.
+     */
+    public AiJob getJob(String jobId, Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        AiJob job = jobs.getIfPresent(jobId);
+        if (job == null || !job.getUserId().equals(user.getId())) {
+            return null;
+        }
+        return job;
+    }
+
+    /**
+     * Streams a status event now and a result event once the job completes.
+     */
+    public SseEmitter subscribe(AiJob job) {
+        SseEmitter emitter = new SseEmitter(sseTimeout.toMillis());
+        try {
+            emitter.send(SseEmitter.event().name("status").data(new AiJobResponse(job)));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+            return emitter;
+        }
+
+        job.getCompletion().whenComplete((completed, error) -> {
+            try {
+                emitter.send(SseEmitter.event().name("result").data(new AiJobResponse(completed)));
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("Could not push result of AI job {}: {}", job.getId(), e.getMessage());
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
+    /**
+     * Queues the work, or returns the user's in-flight job for the same operation.
+     *
+     * @throws RejectedExecutionException if the job queue is full
+     */
+    private AiJob submit(AiJob.Type type, Authentication authentication, Supplier<Object> work) {
+        User user = (User) authentication.getPrincipal();
+        String dedupKey = user.getId() + ":" + type;
+
+        // compute() is atomic per key; a rejected submission throws out of it and leaves no mapping behind
+        AiJob job = activeJobs.compute(dedupKey, (key, existing) -> {
+            if (existing != null && !existing.isDone()) {
+                logger.info("Reusing in-flight {} job {} for user: {}", type, existing.getId(), user.getUsername());
+                return existing;
+            }
+            AiJob created = new AiJob(user.getId(), type);
+            jobs.put(created.getId(), created);
+            try {
+                executor.execute(() -> run(created, dedupKey, work));
+            } catch (RejectedExecutionException e) {
+                jobs.invalidate(created.getId());
+                logger.warn("AI job queue is full, rejecting {} job for user: {}", type, user.getUsername());
+                throw e;
+            }
+            logger.info("Queued {} job {} for user: {}", type, created.getId(), user.getUsername());
+            return created;
+        });
+        return job;
+    }
+
+    private void run(AiJob job, String dedupKey, Supplier<Object> work) {
+        job.markRunning();
+        try {
+            job.succeed(work.get());
+            logger.debug("AI job {} succeeded", job.getId());
+        } catch (Exception e) {
+            logger.error("AI job {} failed: {}", job.getId(), e.getMessage(), e);
+            job.fail(e.getMessage());
+        } finally {
+            activeJobs.remove(dedupKey, job);
+            // Refresh the retention window from completion time
+            jobs.put(job.getId(), job);
+        }
+    }
+
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    public int getRunningCount() {
+        return executor.getActiveCount();
+    }
+}
@@ -0,0 +1,112 @@
+package com.todoai.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.todoai.dto.todo.TodoResponse;
+import com.todoai.event.TodosChangedEvent;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Caches AI prioritization results keyed by a hash of everything that shapes the prompt,
+ * so repeat prioritizations of an unchanged todo list skip the OpenAI call.
+ * Values are the AI's ordering as todo ids, re-applied to freshly loaded todos on a hit.
+ */
+@Component
+public class AiPrioritizationCache {
+    private static final Logger logger = LoggerFactory.getLogger(AiPrioritizationCache.class);
+
+    // Bump when the prompt or model changes so old orderings are not reused
+    private static final String PROMPT_VERSION = "prioritize-v3";
+
+    @Value("${openai.cache.prioritization.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${openai.cache.prioritization.ttl:1h}")
+    private Duration ttl;
+
+    private Cache<String, List<Long>> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Builds the cache key as "userId:sha256(inputs)", where the inputs are the ordered ids,
+     * titles, priorities, due dates and completion states sent to the model.
+     */
+    public String key(Long userId, List<TodoResponse> todos) {
+        MessageDigest digest = sha256();
+        digest.update(PROMPT_VERSION.getBytes(StandardCharsets.UTF_8));
+        for (TodoResponse todo : todos) {
+            String line = "\n" + todo.getId() + "\u0000" + todo.getTitle() + "\u0000"
+                    + todo.getPriority() + "\u0000" + todo.getDueDate() + "\u0000" + todo.isCompleted();
+            digest.update(line.getBytes(StandardCharsets.UTF_8));
+        }
+        return userId + ":" + HexFormat.of().formatHex(digest.digest());
+    }
+
+    public List<Long> get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(String key, List<Long> orderedTodoIds) {
+        cache.put(key, List.copyOf(orderedTodoIds));
+    }
+
+    public void invalidateUser(Long userId) {
+        String prefix = userId + ":";
+        cache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        logger.debug("Invalidated cached prioritizations for user ID: {}", userId);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        logger.debug("Invalidated all cached prioritizations");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodosChanged(TodosChangedEvent event) {
+        invalidateUser(event.getUserId());
+    }
+
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    public double getHitRatio() {
+        return cache.stats().hitRate();
+    }
+
+    public long getSize() {
+        return cache.estimatedSize();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
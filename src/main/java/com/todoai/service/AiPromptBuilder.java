@@ -0,0 +1,194 @@
+package com.todoai.service;
+
+import com.theokanning.openai.completion.chat.ChatCompletionRequest;
+import com.theokanning.openai.completion.chat.ChatMessage;
+import com.theokanning.openai.completion.chat.ChatMessageRole;
+import com.todoai.dto.todo.TodoResponse;
+import com.todoai.entity.Todo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Builds AI prompts within a token budget. Todos are ranked by relevance (incomplete first, then
+ * soonest due, highest priority, newest) and only as many as fit the budget are sent; prioritization
+ * of larger lists is split into several bounded chunks whose results are concatenated.
+ */
+@Component
+public class AiPromptBuilder {
+    private static final Logger logger = LoggerFactory.getLogger(AiPromptBuilder.class);
+
+    private static final String PRIORITIZATION_MODEL = "gpt-4o-mini";
+    private static final String SUGGESTION_MODEL = "gpt-3.5-turbo";
+
+    // Completion budget per prioritized todo: a key such as "T123" plus a newline
+    private static final int RESPONSE_TOKENS_PER_TODO = 6;
+    private static final int MIN_RESPONSE_TOKENS = 50;
+    private static final int SUGGESTION_RESPONSE_TOKENS = 300;
+
+    static final Comparator<TodoResponse> RELEVANCE = Comparator
+            .comparing(TodoResponse::isCompleted)
+            .thenComparing(TodoResponse::getDueDate, Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparingInt(todo -> Todo.Priority.rankOf(todo.getPriority()))
+            .thenComparing(TodoResponse::getCreatedAt, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()));
+
+    @Value("${openai.prompt.token-budget:3000}")
+    private int tokenBudget;
+
+    @Value("${openai.prompt.max-chunks:4}")
+    private int maxChunks;
+
+    @Value("${openai.prompt.suggestion-token-budget:1000}")
+    private int suggestionTokenBudget;
+
+    /**
+     * Prioritization requests for a todo list, plus the todos that did not fit any chunk.
+     */
+    public static class PrioritizationPlan {
+        private final List<TodoResponse> selected;
+        private final List<ChatCompletionRequest> requests;
+        private final List<TodoResponse> overflow;
+
+        PrioritizationPlan(List<TodoResponse> selected, List<ChatCompletionRequest> requests, List<TodoResponse> overflow) {
+            this.selected = selected;
+            this.requests = requests;
+            this.overflow = overflow;
+        }
+
+        // Todos sent to the model, in key order across all chunks
+        public List<TodoResponse> getSelected() {
+            return selected;
+        }
+
+        public List<ChatCompletionRequest> getRequests() {
+            return requests;
+        }
+
+        public List<TodoResponse> getOverflow() {
+            return overflow;
+        }
+    }
+
+    public PrioritizationPlan planPrioritization(List<TodoResponse> todos) {
+        List<TodoResponse> ranked = new ArrayList<>(todos);
+        ranked.sort(RELEVANCE);
+
+        List<TodoResponse> selected = new ArrayList<>();
+        List<ChatCompletionRequest> requests = new ArrayList<>();
+        StringBuilder chunkText = new StringBuilder();
+        int chunkStart = 0;
+        int chunkTokens = 0;
+
+        int position = 0;
+        boolean full = false;
+        for (; position < ranked.size(); position++) {
+            // Keys are global across chunks so one matcher can read all responses in order
+            String line = TodoOrderMatcher.key(position) + ": " + describeForPrioritization(ranked.get(position)) + "\n";
+            int lineTokens = estimateTokens(line);
+            if (chunkTokens + lineTokens > tokenBudget && position > chunkStart) {
+                requests.add(prioritizationRequest(chunkText, position - chunkStart));
+                if (requests.size() == maxChunks) {
+                    full = true;
+                    break;
+                }
+                chunkText.setLength(0);
+                chunkStart = position;
+                chunkTokens = 0;
+            }
+            chunkText.append(line);
+            chunkTokens += lineTokens;
+            selected.add(ranked.get(position));
+        }
+        if (!full && position > chunkStart) {
+            requests.add(prioritizationRequest(chunkText, position - chunkStart));
+        }
+
+        List<TodoResponse> overflow = full
+                ? new ArrayList<>(ranked.subList(position, ranked.size()))
+                : Collections.emptyList();
+        logger.debug("Planned prioritization of {} todos: {} in {} chunk(s), {} over budget",
+                todos.size(), selected.size(), requests.size(), overflow.size());
+        return new PrioritizationPlan(selected, requests, overflow);
+    }
+
+    public ChatCompletionRequest buildSuggestionRequest(List<TodoResponse> todos) {
+        List<TodoResponse> ranked = new ArrayList<>(todos);
+        ranked.sort(RELEVANCE);
+
+        StringBuilder todosContext = new StringBuilder();
+        int tokens = 0;
+        for (TodoResponse todo : ranked) {
+            String line = "- " + todo.getTitle() + " (" + todo.getPriority() + ")\n";
+            tokens += estimateTokens(line);
+            if (tokens > suggestionTokenBudget) {
+                break;
+            }
+            todosContext.append(line);
+        }
+
+        logger.debug("Prepared todos context for OpenAI:\n{}", todosContext);
+
+        String prompt = String.format(
+                "Based on the following existing todos, suggest 3 new productive tasks that would " +
+                "complement this person's workflow. For each suggestion, provide the task and a priority level " +
+                "(LOW, MEDIUM, HIGH, URGENT). Format as: 'TASK_NAME | PRIORITY'\n\n" +
+                "Existing todos:\n%s", todosContext.length() == 0 ? "No existing todos" : todosContext);
+
+        logger.debug("Sending suggestion request to OpenAI with prompt length: {}", prompt.length());
+
+        return ChatCompletionRequest.builder()
+                .model(SUGGESTION_MODEL)
+                .messages(Arrays.asList(
+                        new ChatMessage(ChatMessageRole.USER.value(), prompt)))
+                .maxTokens(SUGGESTION_RESPONSE_TOKENS)
+                .build();
+    }
+
+    /**
+     * Rough token count: about 4 characters per token for English text.
+     */
+    public static int estimateTokens(String text) {
+        return text.length() / 4 + 1;
+    }
+
+    /**
+     * Prompt plus completion budget, used for rate limiting.
+     */
+    public static int estimateTokens(ChatCompletionRequest request) {
+        int tokens = request.getMaxTokens() != null ? request.getMaxTokens() : 0;
+        for (ChatMessage message : request.getMessages()) {
+            tokens += estimateTokens(message.getContent());
+        }
+        return tokens;
+    }
+
+    private ChatCompletionRequest prioritizationRequest(CharSequence todosText, int todoCount) {
+        String prompt = String.format(
+                "Please prioritize the following todos by importance and urgency. " +
+                "Each todo is prefixed with its ID. Return only the IDs in order of priority " +
+                "(most important first), one per line:\n\n%s", todosText);
+
+        logger.debug("Prepared prioritization prompt for {} todos with length: {}", todoCount, prompt.length());
+
+        return ChatCompletionRequest.builder()
+                .model(PRIORITIZATION_MODEL)
+                .messages(Arrays.asList(
+                        new ChatMessage(ChatMessageRole.USER.value(), prompt)))
+                .maxTokens(Math.max(MIN_RESPONSE_TOKENS, todoCount * RESPONSE_TOKENS_PER_TODO))
+                .build();
+    }
+
+    private static String describeForPrioritization(TodoResponse todo) {
+        return todo.getTitle() + " (Priority: " + todo.getPriority()
+                + ", Due: " + (todo.getDueDate() != null ? todo.getDueDate().toString() : "No due date")
+                + (todo.isCompleted() ? ", Completed" : "") + ")";
+    }
+}
@@ -0,0 +1,77 @@
+package com.todoai.service;
+
+import com.todoai.repository.AiSuggestionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.IntSupplier;
+
+/**
+ * Enforces the suggestion retention policy (newest N per user and/or a maximum age) with a periodic
+ * purge that deletes in bounded chunks, each in its own short transaction.
+ */
+@Service
+public class AiSuggestionRetentionService {
+    private static final Logger logger = LoggerFactory.getLogger(AiSuggestionRetentionService.class);
+
+    @Autowired
+    private AiSuggestionRepository aiSuggestionRepository;
+
+    // 0 disables the per-user limit
+    @Value("${openai.suggestions.retention.max-per-user:100}")
+    private int maxPerUser;
+
+    // 0 disables the age limit
+    @Value("${openai.suggestions.retention.max-age:90d}")
+    private Duration maxAge;
+
+    @Value("${openai.suggestions.retention.purge-batch-size:1000}")
+    private int batchSize;
+
+    @Value("${openai.suggestions.retention.max-batches-per-run:100}")
+    private int maxBatchesPerRun;
+
+    @Scheduled(fixedDelayString = "${openai.suggestions.retention.purge-interval:1h}",
+               initialDelayString = "${openai.suggestions.retention.initial-delay:5m}")
+    public void purge() {
+        long started = System.nanoTime();
+        int deleted = 0;
+
+        if (!maxAge.isZero()) {
+            LocalDateTime cutoff = LocalDateTime.now().minus(maxAge);
+            deleted += deleteInBatches(() -> aiSuggestionRepository.deleteOlderThan(cutoff, batchSize));
+        }
+        if (maxPerUser > 0) {
+            for (Long userId : aiSuggestionRepository.findUserIdsWithMoreThan(maxPerUser)) {
+                deleted += deleteInBatches(
+                        () -> aiSuggestionRepository.deleteBeyondNewestForUser(userId, maxPerUser, batchSize));
+            }
+        }
+
+        if (deleted > 0) {
+            logger.info("Purged {} AI suggestions past retention in {} ms",
+                    deleted, Duration.ofNanos(System.nanoTime() - started).toMillis());
+        } else {
+            logger.debug("No AI suggestions past retention");
+        }
+    }
+
+    private int deleteInBatches(IntSupplier deleteBatch) {
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int deleted = deleteBatch.getAsInt();
+            total += deleted;
+            if (deleted < batchSize) {
+                return total;
+            }
+        }
+        logger.warn("AI suggestion purge stopped after {} batches; the rest is left for the next run", maxBatchesPerRun);
+        return total;
+    }
+}
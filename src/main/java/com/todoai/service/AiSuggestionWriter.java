@@ -0,0 +1,99 @@
+package com.todoai.service;
+
+import com.todoai.entity.AiSuggestion;
+import com.todoai.repository.AiSuggestionRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Persists the suggestions of one generation in one transaction: one lookup for repeats, then batched
+ * inserts for new suggestions and batched updates refreshing the repeats.
+ */
+@Service
+public class AiSuggestionWriter {
+    private static final Logger logger = LoggerFactory.getLogger(AiSuggestionWriter.class);
+
+    @Autowired
+    private AiSuggestionRepository aiSuggestionRepository;
+
+    @Autowired
+    private Validator validator;
+
+    /**
+     * Validates the suggestions, stamps the valid ones with a shared generation id and time, and saves
+     * them together. A suggestion the user already has (same normalized text) refreshes the existing
+     * row's last_suggested_at, priority and generation instead of adding a row. Invalid suggestions are
+     * logged and skipped rather than failing the batch.
+     *
+     * @return the saved or refreshed suggestions, in input order
+     */
+    @Transactional
+    public List<AiSuggestion> saveGeneration(Long userId, List<AiSuggestion> suggestions) {
+        UUID generationId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+
+        // Keyed by task hash, which also drops repeats within this generation
+        Map<String, AiSuggestion> valid = new LinkedHashMap<>();
+        for (AiSuggestion suggestion : suggestions) {
+            suggestion.setUserId(userId);
+            Set<ConstraintViolation<AiSuggestion>> violations = validator.validate(suggestion);
+            if (!violations.isEmpty()) {
+                String errors = violations.stream()
+                        .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                        .collect(Collectors.joining(", "));
+                logger.error("Skipping invalid AI suggestion: '{}'. Error: {}", suggestion.getSuggestedTask(), errors);
+                continue;
+            }
+            valid.putIfAbsent(suggestion.getTaskHash(), suggestion);
+        }
+
+        if (valid.isEmpty()) {
+            logger.warn("No valid suggestions to save for user ID: {} ({} rejected)", userId, suggestions.size());
+            return new ArrayList<>();
+        }
+
+        Map<String, AiSuggestion> existing = new HashMap<>();
+        for (AiSuggestion suggestion : aiSuggestionRepository.findByUserIdAndTaskHashIn(userId, valid.keySet())) {
+            existing.put(suggestion.getTaskHash(), suggestion);
+        }
+
+        List<AiSuggestion> result = new ArrayList<>(valid.size());
+        List<AiSuggestion> inserts = new ArrayList<>();
+        for (AiSuggestion suggestion : valid.values()) {
+            AiSuggestion current = existing.get(suggestion.getTaskHash());
+            if (current != null) {
+                // Managed entity: the changes are flushed as a batched UPDATE at commit
+                current.setPriority(suggestion.getPriority());
+                current.setLastSuggestedAt(now);
+                current.setGenerationId(generationId);
+                result.add(current);
+            } else {
+                suggestion.setGenerationId(generationId);
+                suggestion.setCreatedAt(now);
+                suggestion.setLastSuggestedAt(now);
+                inserts.add(suggestion);
+                result.add(suggestion);
+            }
+        }
+        aiSuggestionRepository.saveAll(inserts);
+
+        logger.info("Saved suggestion generation {} for user ID: {} ({} new, {} repeated, {} rejected or duplicate)",
+                generationId, userId, inserts.size(), result.size() - inserts.size(), suggestions.size() - result.size());
+        return result;
+    }
+}
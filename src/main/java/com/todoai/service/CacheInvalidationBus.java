@@ -0,0 +1,241 @@
+package com.todoai.service;
+
+import com.todoai.config.ReplicaRoutingDataSource;
+import com.todoai.event.CacheInvalidation;
+import com.todoai.event.TodosChangedEvent;
+import com.todoai.security.UserPrincipalCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the in-process caches of several nodes consistent through Postgres LISTEN/NOTIFY. Writes are
+ * announced as {@link CacheInvalidation}s inside their own transaction, so Postgres delivers them only
+ * once the write commits and drops them on rollback. Every node holds one dedicated
+ * connection listening on it and evicts the matching entries. A node ignores its own messages, since
+ * it has already evicted locally. The listener connection is probed whenever a poll comes back empty,
+ * so a silently dropped connection is noticed within one poll timeout; once it is re-established
+ * everything is evicted because notifications sent in between are gone.
+ */
+@Component
+public class CacheInvalidationBus {
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private static final String NOTIFY_SQL = "SELECT pg_notify(?, ?)";
+
+    private static final String PROBE_SQL = "SELECT 1";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
+    @Autowired
+    private TodoReadModelCache todoReadModelCache;
+
+    @Autowired
+    private AiPrioritizationCache aiPrioritizationCache;
+
+    // Only present when read replicas are configured
+    @Autowired
+    private ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource;
+
+    @Value("${todoai.cache.invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${todoai.cache.invalidation.channel:todoai_cache_invalidation}")
+    private String channel;
+
+    @Value("${todoai.cache.invalidation.poll-timeout:10s}")
+    private Duration pollTimeout;
+
+    @Value("${todoai.cache.invalidation.reconnect-delay:5s}")
+    private Duration reconnectDelay;
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private volatile boolean listening;
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    @PostConstruct
+    void init() {
+        // Used verbatim in LISTEN, which does not take bind parameters
+        if (!channel.matches("[a-z_][a-z0-9_]{0,62}")) {
+            throw new IllegalStateException("Invalid cache invalidation channel: " + channel);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            logger.info("Cross-node cache invalidation is disabled");
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listen, "cache-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+        logger.info("Cache invalidation listener started (channel: {}, node: {})", channel, nodeId);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    /**
+     * Announces that the user's cached entries of {@code entity} are stale. Inside a transaction the
+     * notification goes out on that transaction's connection and is delivered only if it commits, so no
+     * second pooled connection is needed; a failure here fails the write rather than losing the
+     * invalidation. Outside a transaction it is sent immediately.
+     */
+    public void publish(CacheInvalidation.Entity entity, Long userId) {
+        if (!enabled || userId == null) {
+            return;
+        }
+        String payload = new CacheInvalidation(entity, userId, nodeId).encode();
+        jdbcTemplate.queryForList(NOTIFY_SQL, channel, payload);
+        published.incrementAndGet();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onTodosChanged(TodosChangedEvent event) {
+        publish(CacheInvalidation.Entity.TODOS, event.getUserId());
+    }
+
+    public boolean isListening() {
+        return listening;
+    }
+
+    public long getPublishedCount() {
+        return published.get();
+    }
+
+    public long getReceivedCount() {
+        return received.get();
+    }
+
+    private void listen() {
+        boolean reconnect = false;
+        while (running) {
+            // A dedicated connection rather than a pooled one: it is held for the node's lifetime
+            try (Connection connection = DriverManager.getConnection(url, connectionProperties());
+                 Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + channel);
+                listening = true;
+                if (reconnect) {
+                    evictAll();
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollTimeout.toMillis());
+                    if (notifications == null || notifications.length == 0) {
+                        // getNotifications does not notice a half-open socket; a round trip does
+                        statement.execute(PROBE_SQL);
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        handle(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    logger.warn("Cache invalidation listener lost its connection: {}", e.getMessage());
+                }
+            } finally {
+                listening = false;
+            }
+
+            reconnect = true;
+            if (running) {
+                try {
+                    Thread.sleep(reconnectDelay.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private Properties connectionProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("user", username);
+        properties.setProperty("password", password);
+        properties.setProperty("tcpKeepAlive", "true");
+        // Bounds the probe, so a dead peer surfaces as an error instead of a hung listener
+        properties.setProperty("socketTimeout", String.valueOf(Math.max(1, pollTimeout.toSeconds() * 3)));
+        return properties;
+    }
+
+    private void handle(String payload) {
+        CacheInvalidation invalidation;
+        try {
+            invalidation = CacheInvalidation.decode(payload);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Ignoring cache invalidation: {}", e.getMessage());
+            return;
+        }
+        if (nodeId.equals(invalidation.getOrigin())) {
+            return;
+        }
+
+        received.incrementAndGet();
+        Long userId = invalidation.getUserId();
+        // The writer's own node already keeps them on the primary; extend that to this node
+        replicaRoutingDataSource.ifAvailable(routing -> routing.markRecentWriter(userId));
+        switch (invalidation.getEntity()) {
+            case USER:
+                userPrincipalCache.invalidateUserId(userId);
+                break;
+            case TODOS:
+                todoReadModelCache.invalidateUser(userId);
+                aiPrioritizationCache.invalidateUser(userId);
+                break;
+        }
+        logger.debug("Applied cache invalidation {} for user ID: {}", invalidation.getEntity(), userId);
+    }
+
+    private void evictAll() {
+        userPrincipalCache.invalidateAll();
+        todoReadModelCache.invalidateAll();
+        aiPrioritizationCache.invalidateAll();
+        logger.info("Cache invalidation listener reconnected; evicted all cached entries");
+    }
+}
@@ -0,0 +1,51 @@
+package com.todoai.service;
+
+import com.todoai.dto.todo.TodoResponse;
+import com.todoai.entity.Todo;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Default scorer: priority dominates, then due-date proximity (overdue todos get a large boost
+ * growing with lateness), with a small bonus for age so old todos do not starve. Completed todos
+ * always sort last.
+ */
+@Component
+public class HeuristicTodoScorer implements TodoScorer {
+    private static final double PRIORITY_WEIGHT = 25.0;
+    private static final double DUE_SOON_WEIGHT = 40.0;
+    private static final double OVERDUE_BONUS = 50.0;
+    private static final double OVERDUE_PER_DAY = 2.0;
+    private static final double MAX_OVERDUE_DAYS = 14.0;
+    private static final double AGE_PER_DAY = 0.25;
+    private static final double MAX_AGE_DAYS = 30.0;
+    private static final double COMPLETED_PENALTY = 1000.0;
+
+    @Override
+    public double score(TodoResponse todo, LocalDateTime now) {
+        // URGENT = 4, HIGH = 3, MEDIUM = 2, LOW = 1, none = 0
+        double score = (Todo.Priority.UNRANKED - Todo.Priority.rankOf(todo.getPriority())) * PRIORITY_WEIGHT;
+
+        if (todo.getDueDate() != null) {
+            double daysUntilDue = Duration.between(now, todo.getDueDate()).toMinutes() / (60.0 * 24);
+            if (daysUntilDue < 0) {
+                score += OVERDUE_BONUS + Math.min(-daysUntilDue, MAX_OVERDUE_DAYS) * OVERDUE_PER_DAY;
+            } else {
+                // 40 when due now, 20 in a day, ~6 in a week
+                score += DUE_SOON_WEIGHT / (1.0 + daysUntilDue);
+            }
+        }
+
+        if (todo.getCreatedAt() != null) {
+            double ageDays = Duration.between(todo.getCreatedAt(), now).toMinutes() / (60.0 * 24);
+            score += Math.min(Math.max(ageDays, 0), MAX_AGE_DAYS) * AGE_PER_DAY;
+        }
+
+        if (todo.isCompleted()) {
+            score -= COMPLETED_PENALTY;
+        }
+        return score;
+    }
+}
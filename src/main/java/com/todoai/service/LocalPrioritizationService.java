@@ -0,0 +1,101 @@
+package com.todoai.service;
+
+import com.todoai.dto.todo.TodoResponse;
+import com.todoai.entity.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Deterministic in-process prioritization used for "next actions" and whenever OpenAI is not available.
+ */
+@Service
+public class LocalPrioritizationService {
+    private static final Logger logger = LoggerFactory.getLogger(LocalPrioritizationService.class);
+
+    // Best first: score descending, then soonest due, then oldest id
+    private static final Comparator<ScoredTodo> BEST_FIRST = Comparator
+            .comparingDouble((ScoredTodo scored) -> scored.score).reversed()
+            .thenComparing(scored -> scored.todo.getDueDate(), Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparing(scored -> scored.todo.getId(), Comparator.nullsLast(Comparator.<Long>naturalOrder()));
+
+    @Autowired
+    private TodoScorer todoScorer;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Value("${todoai.next-actions.default-limit:5}")
+    private int defaultNextLimit;
+
+    @Value("${todoai.next-actions.max-limit:50}")
+    private int maxNextLimit;
+
+    private static final class ScoredTodo {
+        private final TodoResponse todo;
+        private final double score;
+
+        private ScoredTodo(TodoResponse todo, double score) {
+            this.todo = todo;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Orders all todos, best first.
+     */
+    public List<TodoResponse> rank(List<TodoResponse> todos) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ScoredTodo> scored = new ArrayList<>(todos.size());
+        for (TodoResponse todo : todos) {
+            scored.add(new ScoredTodo(todo, todoScorer.score(todo, now)));
+        }
+        scored.sort(BEST_FIRST);
+        return scored.stream().map(s -> s.todo).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the best {@code n} todos, best first, keeping only {@code n} candidates in memory at a time.
+     */
+    public List<TodoResponse> topN(Iterable<TodoResponse> todos, int n) {
+        LocalDateTime now = LocalDateTime.now();
+        // Min-heap on the ranking: the head is the weakest of the current top n
+        PriorityQueue<ScoredTodo> heap = new PriorityQueue<>(n + 1, BEST_FIRST.reversed());
+        for (TodoResponse todo : todos) {
+            ScoredTodo candidate = new ScoredTodo(todo, todoScorer.score(todo, now));
+            if (heap.size() < n) {
+                heap.offer(candidate);
+            } else if (BEST_FIRST.compare(candidate, heap.peek()) < 0) {
+                heap.poll();
+                heap.offer(candidate);
+            }
+        }
+
+        List<ScoredTodo> best = new ArrayList<>(heap);
+        best.sort(BEST_FIRST);
+        return best.stream().map(s -> s.todo).collect(Collectors.toList());
+    }
+
+    public List<TodoResponse> getNextActions(Integer n, Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        int limit = n == null ? defaultNextLimit : Math.max(1, Math.min(n, maxNextLimit));
+
+        List<TodoResponse> openTodos = todoService.getUserTodosForAI(authentication).stream()
+                .filter(todo -> !todo.isCompleted())
+                .collect(Collectors.toList());
+        List<TodoResponse> next = topN(openTodos, limit);
+        logger.debug("Selected {} next actions from {} open todos for user: {}",
+                next.size(), openTodos.size(), user.getUsername());
+        return next;
+    }
+}
@@ -0,0 +1,292 @@
+package com.todoai.service;
+
+import com.theokanning.openai.OpenAiHttpException;
+import com.todoai.exception.OpenAiUnavailableException;
+import com.todoai.util.TokenBucket;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import retrofit2.HttpException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Guards every outbound OpenAI call with a circuit breaker, a concurrency bulkhead and
+ * request/token buckets sized to the account's RPM/TPM quota. Rejected calls fail fast with
+ * {@link OpenAiUnavailableException} so callers go straight to their fallbacks.
+ */
+@Component
+public class OpenAiGuard {
+    private static final Logger logger = LoggerFactory.getLogger(OpenAiGuard.class);
+
+    public enum CircuitState { CLOSED, OPEN, HALF_OPEN }
+
+    @Value("${openai.guard.max-concurrent:8}")
+    private int maxConcurrent;
+
+    @Value("${openai.guard.max-wait:100ms}")
+    private Duration maxWait;
+
+    @Value("${openai.guard.requests-per-minute:500}")
+    private long requestsPerMinute;
+
+    @Value("${openai.guard.tokens-per-minute:200000}")
+    private long tokensPerMinute;
+
+    @Value("${openai.guard.circuit.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${openai.guard.circuit.open-duration:30s}")
+    private Duration openDuration;
+
+    private Semaphore bulkhead;
+    private TokenBucket requestBucket;
+    private TokenBucket tokenBucket;
+
+    private volatile CircuitState state = CircuitState.CLOSED;
+    private volatile long openedAt;
+    private int consecutiveFailures;
+    private final AtomicBoolean probeInFlight = new AtomicBoolean();
+
+    private final AtomicLong successCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong circuitRejections = new AtomicLong();
+    private final AtomicLong bulkheadRejections = new AtomicLong();
+    private final AtomicLong rateLimitRejections = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        bulkhead = new Semaphore(maxConcurrent);
+        requestBucket = new TokenBucket(requestsPerMinute, Duration.ofMinutes(1));
+        tokenBucket = new TokenBucket(tokensPerMinute, Duration.ofMinutes(1));
+        logger.info("OpenAI guard configured (max concurrent: {}, RPM: {}, TPM: {}, failure threshold: {}, open for: {})",
+                maxConcurrent, requestsPerMinute, tokensPerMinute, failureThreshold, openDuration);
+    }
+
+    /**
+     * Runs the call if the circuit, bulkhead and rate limits allow it.
+     *
+     * @throws OpenAiUnavailableException if the call was not attempted
+     */
+    public <T> T call(int estimatedTokens, Supplier<T> call) {
+        Permit permit = acquire(estimatedTokens);
+        try {
+            T result = call.get();
+            permit.succeeded();
+            return result;
+        } catch (RuntimeException e) {
+            permit.failed(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Takes a slot for a call whose outcome is reported later, e.g. a streamed completion.
+     * The returned permit must be finished exactly once via succeeded, failed or cancelled.
+     *
+     * @throws OpenAiUnavailableException if the call must not be attempted
+     */
+    public Permit acquire(int estimatedTokens) {
+        boolean probe = acquirePermission();
+        try {
+            if (!bulkhead.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                bulkheadRejections.incrementAndGet();
+                throw new OpenAiUnavailableException("Too many concurrent OpenAI calls");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            releaseProbe(probe);
+            throw new OpenAiUnavailableException("Interrupted while waiting for an OpenAI slot");
+        } catch (OpenAiUnavailableException e) {
+            releaseProbe(probe);
+            throw e;
+        }
+
+        try {
+            if (!requestBucket.tryConsume(1)) {
+                rateLimitRejections.incrementAndGet();
+                throw new OpenAiUnavailableException("OpenAI request rate limit reached");
+            }
+            if (!tokenBucket.tryConsume(estimatedTokens)) {
+                requestBucket.refund(1);
+                rateLimitRejections.incrementAndGet();
+                throw new OpenAiUnavailableException("OpenAI token rate limit reached");
+            }
+        } catch (OpenAiUnavailableException e) {
+            bulkhead.release();
+            releaseProbe(probe);
+            throw e;
+        }
+        return new Permit(probe);
+    }
+
+    public class Permit {
+        private final boolean probe;
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        private Permit(boolean probe) {
+            this.probe = probe;
+        }
+
+        public void succeeded() {
+            if (finished.compareAndSet(false, true)) {
+                bulkhead.release();
+                onSuccess(probe);
+            }
+        }
+
+        public void failed(Throwable error) {
+            if (finished.compareAndSet(false, true)) {
+                bulkhead.release();
+                if (isUpstreamFailure(error)) {
+                    onFailure(error, probe);
+                } else {
+                    // A bad request or a bug on our side says nothing about OpenAI's health either way
+                    releaseProbe(probe);
+                }
+            }
+        }
+
+        /**
+         * Releases the slot without recording an outcome, e.g. when the client went away.
+         */
+        public void cancelled() {
+            if (finished.compareAndSet(false, true)) {
+                bulkhead.release();
+                releaseProbe(probe);
+            }
+        }
+    }
+
+    /**
+     * Returns whether this call is the half-open probe.
+     */
+    private boolean acquirePermission() {
+        if (state == CircuitState.OPEN) {
+            if (System.nanoTime() - openedAt < openDuration.toNanos()) {
+                circuitRejections.incrementAndGet();
+                throw new OpenAiUnavailableException("OpenAI circuit is open");
+            }
+            synchronized (this) {
+                if (state == CircuitState.OPEN) {
+                    state = CircuitState.HALF_OPEN;
+                    logger.info("OpenAI circuit half-open, allowing a probe call");
+                }
+            }
+        }
+        if (state == CircuitState.HALF_OPEN) {
+            if (!probeInFlight.compareAndSet(false, true)) {
+                circuitRejections.incrementAndGet();
+                throw new OpenAiUnavailableException("OpenAI circuit is half-open and a probe is in flight");
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void releaseProbe(boolean probe) {
+        if (probe) {
+            probeInFlight.set(false);
+        }
+    }
+
+    /**
+     * Only the probe decides a half-open circuit; a call admitted before the circuit opened may finish
+     * late and must not close it or let a second probe in.
+     */
+    private synchronized void onSuccess(boolean probe) {
+        successCount.incrementAndGet();
+        consecutiveFailures = 0;
+        if (probe && state == CircuitState.HALF_OPEN) {
+            logger.info("OpenAI probe call succeeded, closing circuit");
+            state = CircuitState.CLOSED;
+        }
+        releaseProbe(probe);
+    }
+
+    private synchronized void onFailure(Throwable e, boolean probe) {
+        failureCount.incrementAndGet();
+        consecutiveFailures++;
+        if ((probe && state == CircuitState.HALF_OPEN)
+                || (state == CircuitState.CLOSED && consecutiveFailures >= failureThreshold)) {
+            logger.warn("Opening OpenAI circuit for {} after {} consecutive failures, last: {}",
+                    openDuration, consecutiveFailures, e.getMessage());
+            state = CircuitState.OPEN;
+            openedAt = System.nanoTime();
+        }
+        releaseProbe(probe);
+    }
+
+    /**
+     * Whether the error says OpenAI is unhealthy: an I/O failure or timeout reaching it, or a 429/5xx
+     * answer. Anything else (a bad request, a parsing bug on our side) leaves the circuit alone. The
+     * client wraps transport errors, so the whole cause chain is checked.
+     */
+    private static boolean isUpstreamFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException || cause instanceof TimeoutException) {
+                return true;
+            }
+            if (cause instanceof OpenAiHttpException) {
+                return isUpstreamStatus(((OpenAiHttpException) cause).statusCode);
+            }
+            if (cause instanceof HttpException) {
+                return isUpstreamStatus(((HttpException) cause).code());
+            }
+        }
+        return false;
+    }
+
+    private static boolean isUpstreamStatus(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    public CircuitState getState() {
+        return state;
+    }
+
+    public int getActiveCalls() {
+        return maxConcurrent - bulkhead.availablePermits();
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public long getAvailableRequests() {
+        return requestBucket.getAvailable();
+    }
+
+    public long getAvailableTokens() {
+        return tokenBucket.getAvailable();
+    }
+
+    public long getSuccessCount() {
+        return successCount.get();
+    }
+
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    public long getCircuitRejections() {
+        return circuitRejections.get();
+    }
+
+    public long getBulkheadRejections() {
+        return bulkheadRejections.get();
+    }
+
+    public long getRateLimitRejections() {
+        return rateLimitRejections.get();
+    }
+}
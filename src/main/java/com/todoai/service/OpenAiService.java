@@ -1,31 +1,53 @@
 package com.todoai.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.theokanning.openai.client.OpenAiApi;
+import com.theokanning.openai.completion.chat.ChatCompletionChunk;
 import com.theokanning.openai.completion.chat.ChatCompletionRequest;
-import com.theokanning.openai.completion.chat.ChatMessage;
-import com.theokanning.openai.completion.chat.ChatMessageRole;
 import com.todoai.dto.ai.AiSuggestionResponse;
+import com.todoai.dto.page.CursorPage;
+import com.todoai.dto.page.PageCursor;
 import com.todoai.dto.todo.TodoResponse;
 import com.todoai.entity.AiSuggestion;
 import com.todoai.entity.Todo;
 import com.todoai.entity.User;
+import com.todoai.exception.OpenAiUnavailableException;
 import com.todoai.repository.AiSuggestionRepository;
+import com.todoai.util.SingleFlight;
+import io.reactivex.Flowable;
+import io.reactivex.disposables.Disposable;
+import jakarta.annotation.PostConstruct;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import retrofit2.Retrofit;
 
+import java.io.IOException;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 public class OpenAiService {
     private static final Logger logger = LoggerFactory.getLogger(OpenAiService.class);
 
+    private static final String SUGGESTIONS_CURSOR = "suggestions-recent";
+
     @Value("${openai.api.key}")
     private String openAiApiKey;
 
@@ -35,20 +57,96 @@ public class OpenAiService {
     @Autowired
     private AiSuggestionRepository aiSuggestionRepository;
 
-    private com.theokanning.openai.service.OpenAiService openAiClient;
+    @Autowired
+    private AiPrioritizationCache aiPrioritizationCache;
 
-    private com.theokanning.openai.service.OpenAiService getOpenAiClient() {
-        if (openAiClient == null && !"your-openai-api-key".equals(openAiApiKey)) {
-            openAiClient = new com.theokanning.openai.service.OpenAiService(openAiApiKey, Duration.ofSeconds(30));
+    @Autowired
+    private OpenAiGuard openAiGuard;
+
+    @Autowired
+    private AiPromptBuilder aiPromptBuilder;
+
+    @Autowired
+    private LocalPrioritizationService localPrioritizationService;
+
+    @Autowired
+    private AiSuggestionWriter aiSuggestionWriter;
+
+    @Value("${openai.api.base-url:https://api.openai.com/}")
+    private String openAiBaseUrl;
+
+    @Value("${openai.api.timeout:30s}")
+    private Duration openAiTimeout;
+
+    @Value("${openai.api.max-idle-connections:50}")
+    private int maxIdleConnections;
+
+    @Value("${openai.api.stream-timeout:2m}")
+    private Duration streamTimeout;
+
+    @Value("${todoai.pagination.default-limit:50}")
+    private int defaultPageLimit;
+
+    @Value("${todoai.pagination.max-limit:200}")
+    private int maxPageLimit;
+
+    // Built once at startup; the old lazy, unsynchronized creation could race and build several clients
+    private volatile com.theokanning.openai.service.OpenAiService openAiClient;
+
+    // Concurrent calls for the same user share one in-flight run, keyed by "userId:operation"
+    private final SingleFlight<String, List<TodoResponse>> prioritizeFlights = new SingleFlight<>();
+    private final SingleFlight<String, List<AiSuggestionResponse>> suggestFlights = new SingleFlight<>();
+
+    @PostConstruct
+    void initOpenAiClient() {
+        if ("your-openai-api-key".equals(openAiApiKey)) {
+            logger.info("OpenAI API key not configured, AI features will use fallbacks");
+            return;
         }
+
+        // The library default keeps only 5 idle connections, too few for many concurrent (virtual) threads
+        OkHttpClient httpClient = com.theokanning.openai.service.OpenAiService.defaultClient(openAiApiKey, openAiTimeout)
+                .newBuilder()
+                .connectionPool(new ConnectionPool(maxIdleConnections, 5, TimeUnit.MINUTES))
+                .build();
+        ObjectMapper mapper = com.theokanning.openai.service.OpenAiService.defaultObjectMapper();
+        Retrofit retrofit = com.theokanning.openai.service.OpenAiService.defaultRetrofit(httpClient, mapper)
+                .newBuilder()
+                .baseUrl(openAiBaseUrl)
+                .build();
+
+        openAiClient = new com.theokanning.openai.service.OpenAiService(
+                retrofit.create(OpenAiApi.class), httpClient.dispatcher().executorService());
+        logger.info("OpenAI client initialized (base URL: {}, timeout: {})", openAiBaseUrl, openAiTimeout);
+    }
+
+    private com.theokanning.openai.service.OpenAiService getOpenAiClient() {
         return openAiClient;
     }
 
     public List<TodoResponse> prioritizeTodos(Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return prioritizeFlights.execute(user.getId() + ":prioritize", () -> doPrioritizeTodos(authentication));
+    }
+
+    public List<AiSuggestionResponse> generateSuggestions(Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return suggestFlights.execute(user.getId() + ":suggest", () -> doGenerateSuggestions(authentication));
+    }
+
+    public long getCoalescedCallCount() {
+        return prioritizeFlights.getCoalescedCalls() + suggestFlights.getCoalescedCalls();
+    }
+
+    public int getInFlightCount() {
+        return prioritizeFlights.getInFlightCount() + suggestFlights.getInFlightCount();
+    }
+
+    private List<TodoResponse> doPrioritizeTodos(Authentication authentication) {
         User user = (User) authentication.getPrincipal();
         logger.info("Starting todo prioritization for user: {} (ID: {})", user.getUsername(), user.getId());
 
-        List<Todo> todos = todoService.getUserTodosForAI(authentication);
+        List<TodoResponse> todos = todoService.getUserTodosForAI(authentication);
         logger.debug("Retrieved {} todos for prioritization", todos.size());
 
         if (todos.isEmpty()) {
@@ -58,70 +156,54 @@ public class OpenAiService {
 
         if (getOpenAiClient() == null) {
             logger.warn("OpenAI client not available (API key not configured), using fallback prioritization");
-            // Fallback: return todos sorted by existing priority
-            List<TodoResponse> fallbackResult = todos.stream()
-                    .sorted((t1, t2) -> {
-                        int priority1 = getPriorityValue(t1.getPriority());
-                        int priority2 = getPriorityValue(t2.getPriority());
-                        return Integer.compare(priority1, priority2);
-                    })
-                    .map(TodoResponse::new)
-                    .collect(Collectors.toList());
-            logger.debug("Fallback prioritization completed, returning {} todos", fallbackResult.size());
-            return fallbackResult;
+            return fallbackPrioritization(todos);
+        }
+
+        String cacheKey = aiPrioritizationCache.key(user.getId(), todos);
+        List<Long> cachedOrder = aiPrioritizationCache.get(cacheKey);
+        if (cachedOrder != null) {
+            logger.info("Using cached prioritization for user: {}", user.getUsername());
+            return applyCachedOrder(todos, cachedOrder);
         }
 
         try {
-            String todosText = todos.stream()
-                    .map(todo -> String.format("- %s (Priority: %s, Due: %s)",
-                            todo.getTitle(),
-                            todo.getPriority(),
-                            todo.getDueDate() != null ? todo.getDueDate().toString() : "No due date"))
-                    .collect(Collectors.joining("\n"));
-
-            logger.debug("Prepared todos text for OpenAI:\n{}", todosText);
-
-            String prompt = String.format(
-                    "Please prioritize the following todos by importance and urgency. " +
-                    "Return only the todo titles in order of priority (most important first), " +
-                    "one per line, exactly as they appear:\n\n%s", todosText);
-
-            logger.debug("Sending request to OpenAI with prompt length: {}", prompt.length());
-
-            ChatCompletionRequest request = ChatCompletionRequest.builder()
-                    .model("gpt-4o-mini")
-                    .messages(Arrays.asList(
-                            new ChatMessage(ChatMessageRole.USER.value(), prompt)))
-                    .maxTokens(500)
-                    .build();
-
-            logger.info("Making OpenAI API call for todo prioritization");
-            String response = getOpenAiClient().createChatCompletion(request)
-                    .getChoices().get(0).getMessage().getContent();
+            AiPromptBuilder.PrioritizationPlan plan = aiPromptBuilder.planPrioritization(todos);
+
+            StringBuilder response = new StringBuilder();
+            List<ChatCompletionRequest> requests = plan.getRequests();
+            for (int i = 0; i < requests.size(); i++) {
+                ChatCompletionRequest request = requests.get(i);
+                logger.info("Making OpenAI API call for todo prioritization (chunk {} of {})", i + 1, requests.size());
+                String chunkResponse = openAiGuard.call(AiPromptBuilder.estimateTokens(request),
+                        () -> getOpenAiClient().createChatCompletion(request))
+                        .getChoices().get(0).getMessage().getContent();
+                response.append(chunkResponse).append('\n');
+            }
 
             logger.debug("OpenAI response received: {}", response);
             logger.info("OpenAI prioritization completed successfully for user: {}", user.getUsername());
 
-            List<TodoResponse> result = reorderTodosByAiResponse(todos, response);
+            // Chunks were cut from the relevance ranking, so their orderings concatenate in rank order
+            List<TodoResponse> result = reorderTodosByAiResponse(plan.getSelected(), response.toString());
+            result.addAll(fallbackPrioritization(plan.getOverflow()));
             logger.debug("Reordered {} todos based on AI response", result.size());
+            aiPrioritizationCache.put(cacheKey, result.stream().map(TodoResponse::getId).collect(Collectors.toList()));
             return result;
 
+        } catch (OpenAiUnavailableException e) {
+            logger.warn("Skipping OpenAI prioritization for user: {} ({}), using fallback", user.getUsername(), e.getMessage());
+            return fallbackPrioritization(todos);
         } catch (Exception e) {
             logger.error("OpenAI prioritization failed for user: {}. Error: {}", user.getUsername(), e.getMessage(), e);
-            // Fallback on error
-            List<TodoResponse> fallbackResult = todos.stream()
-                    .map(TodoResponse::new)
-                    .collect(Collectors.toList());
-            logger.debug("Using fallback result due to error, returning {} todos", fallbackResult.size());
-            return fallbackResult;
+            return fallbackPrioritization(todos);
         }
     }
 
-    public List<AiSuggestionResponse> generateSuggestions(Authentication authentication) {
+    private List<AiSuggestionResponse> doGenerateSuggestions(Authentication authentication) {
         User user = (User) authentication.getPrincipal();
         logger.info("Starting AI suggestion generation for user: {} (ID: {})", user.getUsername(), user.getId());
 
-        List<Todo> todos = todoService.getUserTodosForAI(authentication);
+        List<TodoResponse> todos = todoService.getUserTodosForAI(authentication);
         logger.debug("Retrieved {} existing todos for context", todos.size());
 
         if (getOpenAiClient() == null) {
@@ -132,30 +214,11 @@ public class OpenAiService {
         }
 
         try {
-            String todosContext = todos.isEmpty() ? "No existing todos" :
-                    todos.stream()
-                            .map(todo -> String.format("- %s (%s)", todo.getTitle(), todo.getPriority()))
-                            .collect(Collectors.joining("\n"));
-
-            logger.debug("Prepared todos context for OpenAI:\n{}", todosContext);
-
-            String prompt = String.format(
-                    "Based on the following existing todos, suggest 3 new productive tasks that would " +
-                    "complement this person's workflow. For each suggestion, provide the task and a priority level " +
-                    "(LOW, MEDIUM, HIGH, URGENT). Format as: 'TASK_NAME | PRIORITY'\n\n" +
-                    "Existing todos:\n%s", todosContext);
-
-            logger.debug("Sending suggestion request to OpenAI with prompt length: {}", prompt.length());
-
-            ChatCompletionRequest request = ChatCompletionRequest.builder()
-                    .model("gpt-3.5-turbo")
-                    .messages(Arrays.asList(
-                            new ChatMessage(ChatMessageRole.USER.value(), prompt)))
-                    .maxTokens(300)
-                    .build();
+            ChatCompletionRequest request = aiPromptBuilder.buildSuggestionRequest(todos);
 
             logger.info("Making OpenAI API call for suggestion generation");
-            String response = getOpenAiClient().createChatCompletion(request)
+            String response = openAiGuard.call(AiPromptBuilder.estimateTokens(request),
+                    () -> getOpenAiClient().createChatCompletion(request))
                     .getChoices().get(0).getMessage().getContent();
 
             logger.debug("OpenAI suggestion response received: {}", response);
@@ -165,6 +228,10 @@ public class OpenAiService {
             logger.debug("Parsed {} suggestions from AI response", result.size());
             return result;
 
+        } catch (OpenAiUnavailableException e) {
+            logger.warn("Skipping OpenAI suggestion generation for user: {} ({}), using mock suggestions",
+                    user.getUsername(), e.getMessage());
+            return createMockSuggestions(user.getId());
         } catch (Exception e) {
             logger.error("OpenAI suggestion generation failed for user: {}. Error: {}", user.getUsername(), e.getMessage(), e);
             List<AiSuggestionResponse> fallbackResult = createMockSuggestions(user.getId());
@@ -173,95 +240,412 @@ public class OpenAiService {
         }
     }
 
+    /**
+     * Streams prioritized todos as "todo" events as each line of the completion arrives, then a
+     * "done" event with the full ordering. Todos the model did not mention are sent last.
+     */
+    public SseEmitter streamPrioritization(Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+
+        List<TodoResponse> todos = todoService.getUserTodosForAI(authentication);
+        logger.info("Starting streamed prioritization of {} todos for user: {}", todos.size(), user.getUsername());
+
+        if (todos.isEmpty() || getOpenAiClient() == null) {
+            sendAll(emitter, "todo", fallbackPrioritization(todos));
+            return emitter;
+        }
+
+        String cacheKey = aiPrioritizationCache.key(user.getId(), todos);
+        List<Long> cachedOrder = aiPrioritizationCache.get(cacheKey);
+        if (cachedOrder != null) {
+            logger.info("Using cached prioritization for user: {}", user.getUsername());
+            sendAll(emitter, "todo", applyCachedOrder(todos, cachedOrder));
+            return emitter;
+        }
+
+        AiPromptBuilder.PrioritizationPlan plan = aiPromptBuilder.planPrioritization(todos);
+        List<ChatCompletionRequest> requests = plan.getRequests();
+        // Taken up front only for the first chunk, so an unavailable guard falls back before anything is sent
+        OpenAiGuard.Permit firstPermit;
+        try {
+            firstPermit = openAiGuard.acquire(AiPromptBuilder.estimateTokens(requests.get(0)));
+        } catch (OpenAiUnavailableException e) {
+            logger.warn("Skipping OpenAI prioritization for user: {} ({}), using fallback", user.getUsername(), e.getMessage());
+            sendAll(emitter, "todo", fallbackPrioritization(todos));
+            return emitter;
+        }
+
+        // Only touched from the subscriber callbacks, which RxJava runs one at a time
+        TodoOrderMatcher matcher = new TodoOrderMatcher(plan.getSelected());
+        List<TodoResponse> ordered = new ArrayList<>(todos.size());
+        LineBuffer lines = new LineBuffer(line -> {
+            TodoResponse todo = matcher.match(line);
+            if (todo != null) {
+                ordered.add(todo);
+                send(emitter, "todo", todo);
+            }
+        });
+
+        // Chunks are streamed one after another; the newline keeps a chunk's last line from running into the next.
+        // Each chunk is a separate request, so it takes its own permit (request and token budget) when its turn comes
+        List<Flowable<String>> chunkStreams = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            ChatCompletionRequest request = requests.get(i);
+            OpenAiGuard.Permit acquired = i == 0 ? firstPermit : null;
+            chunkStreams.add(Flowable.defer(() -> {
+                OpenAiGuard.Permit permit = acquired != null
+                        ? acquired
+                        : openAiGuard.acquire(AiPromptBuilder.estimateTokens(request));
+                return getOpenAiClient().streamChatCompletion(request)
+                        .map(OpenAiService::deltaContent)
+                        .doOnComplete(permit::succeeded)
+                        .doOnError(permit::failed)
+                        .doOnCancel(permit::cancelled);
+            }).concatWith(Flowable.just("\n")));
+        }
+
+        Disposable subscription = Flowable.concat(chunkStreams).subscribe(
+                lines::append,
+                error -> {
+                    if (error instanceof OpenAiUnavailableException) {
+                        logger.warn("Skipping remaining OpenAI chunks for user: {} after {} todos ({}), using fallback",
+                                user.getUsername(), ordered.size(), error.getMessage());
+                    } else {
+                        logger.error("Streamed prioritization failed for user: {} after {} todos. Error: {}",
+                                user.getUsername(), ordered.size(), error.getMessage());
+                    }
+                    // Finish with the rest in priority order so the client still receives every todo
+                    List<TodoResponse> rest = new ArrayList<>(matcher.unmatched());
+                    rest.addAll(plan.getOverflow());
+                    for (TodoResponse response : fallbackPrioritization(rest)) {
+                        ordered.add(response);
+                        send(emitter, "todo", response);
+                    }
+                    finish(emitter, ordered);
+                },
+                () -> {
+                    lines.flush();
+                    logger.info("Streamed prioritization completed for user: {} ({} matched, {} unmatched)",
+                            user.getUsername(), matcher.getMatchedCount(), todos.size() - matcher.getMatchedCount());
+                    for (TodoResponse todo : matcher.unmatched()) {
+                        ordered.add(todo);
+                        send(emitter, "todo", todo);
+                    }
+                    for (TodoResponse response : fallbackPrioritization(plan.getOverflow())) {
+                        ordered.add(response);
+                        send(emitter, "todo", response);
+                    }
+                    aiPrioritizationCache.put(cacheKey, ordered.stream().map(TodoResponse::getId).collect(Collectors.toList()));
+                    finish(emitter, ordered);
+                });
+        // Disposing cancels the running chunk, which releases its permit
+        cancelOnDisconnect(emitter, subscription::dispose);
+        return emitter;
+    }
+
+    /**
+     * Streams each suggestion as a "suggestion" event once its line is complete. When the stream
+     * ends the suggestions are saved and sent, with their ids, in a final "done" event.
+     */
+    public SseEmitter streamSuggestions(Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+
+        List<TodoResponse> todos = todoService.getUserTodosForAI(authentication);
+        logger.info("Starting streamed suggestion generation for user: {}", user.getUsername());
+
+        if (getOpenAiClient() == null) {
+            sendAll(emitter, "suggestion", createMockSuggestions(user.getId()));
+            return emitter;
+        }
+
+        ChatCompletionRequest request = aiPromptBuilder.buildSuggestionRequest(todos);
+        OpenAiGuard.Permit permit;
+        try {
+            permit = openAiGuard.acquire(AiPromptBuilder.estimateTokens(request));
+        } catch (OpenAiUnavailableException e) {
+            logger.warn("Skipping OpenAI suggestion generation for user: {} ({}), using mock suggestions",
+                    user.getUsername(), e.getMessage());
+            sendAll(emitter, "suggestion", createMockSuggestions(user.getId()));
+            return emitter;
+        }
+
+        List<AiSuggestion> parsed = new ArrayList<>();
+        LineBuffer lines = new LineBuffer(line -> {
+            AiSuggestion suggestion = parseSuggestionLine(line, user.getId());
+            if (suggestion != null) {
+                parsed.add(suggestion);
+                send(emitter, "suggestion", new AiSuggestionResponse(suggestion));
+            }
+        });
+
+        Disposable subscription = getOpenAiClient().streamChatCompletion(request).subscribe(
+                chunk -> lines.append(deltaContent(chunk)),
+                error -> {
+                    permit.failed(error);
+                    logger.error("Streamed suggestion generation failed for user: {} after {} suggestions. Error: {}",
+                            user.getUsername(), parsed.size(), error.getMessage());
+                    finish(emitter, parsed.isEmpty() ? createMockSuggestions(user.getId()) : saveSuggestions(user.getId(), parsed));
+                },
+                () -> {
+                    permit.succeeded();
+                    lines.flush();
+                    List<AiSuggestionResponse> saved = saveSuggestions(user.getId(), parsed);
+                    logger.info("Streamed suggestion generation completed for user: {} ({} suggestions)",
+                            user.getUsername(), saved.size());
+                    finish(emitter, saved);
+                });
+        cancelOnDisconnect(emitter, subscription, permit);
+        return emitter;
+    }
+
+    @Transactional(readOnly = true)
     public List<AiSuggestionResponse> getUserSuggestions(Authentication authentication) {
         User user = (User) authentication.getPrincipal();
         logger.info("Retrieving AI suggestions for user: {} (ID: {})", user.getUsername(), user.getId());
 
-        List<AiSuggestionResponse> suggestions = aiSuggestionRepository.findByUserIdOrderByCreatedAtDesc(user.getId())
-                .stream()
-                .map(AiSuggestionResponse::new)
-                .collect(Collectors.toList());
+        List<AiSuggestionResponse> suggestions = aiSuggestionRepository.findResponsesByUserId(user.getId());
 
         logger.debug("Retrieved {} existing suggestions for user: {}", suggestions.size(), user.getUsername());
         return suggestions;
     }
 
-    private List<TodoResponse> reorderTodosByAiResponse(List<Todo> todos, String aiResponse) {
-        logger.debug("Starting todo reordering based on AI response");
-        String[] lines = aiResponse.split("\n");
-        logger.debug("AI response contains {} lines", lines.length);
+    @Transactional(readOnly = true)
+    public CursorPage<AiSuggestionResponse> getUserSuggestionsPage(String cursor, Integer limit,
+                                                                   Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        int pageSize = limit == null ? defaultPageLimit : Math.max(1, Math.min(limit, maxPageLimit));
+        // Fetch one extra row to know whether another page follows
+        PageRequest fetch = PageRequest.of(0, pageSize + 1);
+
+        List<AiSuggestionResponse> rows;
+        if (cursor == null) {
+            rows = aiSuggestionRepository.findPageByUserId(user.getId(), fetch);
+        } else {
+            PageCursor after = PageCursor.decode(cursor, SUGGESTIONS_CURSOR, 2);
+            rows = aiSuggestionRepository.findPageByUserIdAfter(user.getId(),
+                    after.getDateTime(0), after.getLong(1), fetch);
+        }
 
-        List<TodoResponse> reorderedTodos = new ArrayList<>();
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            AiSuggestionResponse last = rows.get(pageSize - 1);
+            nextCursor = PageCursor.encode(SUGGESTIONS_CURSOR, last.getLastSuggestedAt(), last.getId());
+        }
 
-        for (String line : lines) {
-            String cleanLine = line.trim().replaceAll("^[-*]\\s*", "");
-            logger.debug("Processing line: '{}' -> '{}'", line, cleanLine);
-
-            for (Todo todo : todos) {
-                if (todo.getTitle().equalsIgnoreCase(cleanLine) &&
-                    reorderedTodos.stream().noneMatch(t -> t.getId().equals(todo.getId()))) {
-                    reorderedTodos.add(new TodoResponse(todo));
-                    logger.debug("Matched and added todo: '{}'", todo.getTitle());
-                    break;
+        logger.debug("Retrieved page of {} suggestions for user: {}", rows.size(), user.getUsername());
+        return new CursorPage<>(rows, nextCursor);
+    }
+
+    // Used whenever OpenAI is not configured, unavailable or failing
+    private List<TodoResponse> fallbackPrioritization(List<TodoResponse> todos) {
+        List<TodoResponse> fallbackResult = localPrioritizationService.rank(todos);
+        logger.debug("Fallback prioritization completed, returning {} todos", fallbackResult.size());
+        return fallbackResult;
+    }
+
+    private List<TodoResponse> applyCachedOrder(List<TodoResponse> todos, List<Long> orderedIds) {
+        Map<Long, TodoResponse> todosById = new LinkedHashMap<>();
+        for (TodoResponse todo : todos) {
+            todosById.put(todo.getId(), todo);
+        }
+
+        List<TodoResponse> ordered = new ArrayList<>(todos.size());
+        for (Long id : orderedIds) {
+            TodoResponse todo = todosById.remove(id);
+            if (todo != null) {
+                ordered.add(todo);
+            }
+        }
+        // Anything not in the cached ordering keeps its original position at the end
+        ordered.addAll(todosById.values());
+        return ordered;
+    }
+
+    // Saves one generation in a single batched transaction; only saved suggestions are returned
+    private List<AiSuggestionResponse> saveSuggestions(Long userId, List<AiSuggestion> suggestions) {
+        try {
+            List<AiSuggestion> saved;
+            try {
+                saved = aiSuggestionWriter.saveGeneration(userId, suggestions);
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent generation inserted the same suggestion first; retrying turns it into a refresh
+                logger.debug("Suggestion insert raced for user ID: {}, retrying", userId);
+                saved = aiSuggestionWriter.saveGeneration(userId, copyForRetry(suggestions));
+            }
+            return saved.stream()
+                    .map(AiSuggestionResponse::new)
+                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            logger.error("Failed to save {} AI suggestions for user ID: {}. Error: {}",
+                    suggestions.size(), userId, e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    // The failed attempt may have assigned ids to these instances, so retry with fresh ones
+    private static List<AiSuggestion> copyForRetry(List<AiSuggestion> suggestions) {
+        return suggestions.stream()
+                .map(s -> new AiSuggestion(s.getUserId(), s.getSuggestedTask(), s.getPriority()))
+                .collect(Collectors.toList());
+    }
+
+    // Never null, since RxJava does not allow null values
+    private static String deltaContent(ChatCompletionChunk chunk) {
+        if (chunk.getChoices() == null || chunk.getChoices().isEmpty()
+                || chunk.getChoices().get(0).getMessage() == null
+                || chunk.getChoices().get(0).getMessage().getContent() == null) {
+            return "";
+        }
+        return chunk.getChoices().get(0).getMessage().getContent();
+    }
+
+    private void sendAll(SseEmitter emitter, String eventName, List<?> items) {
+        for (Object item : items) {
+            send(emitter, eventName, item);
+        }
+        finish(emitter, items);
+    }
+
+    private void finish(SseEmitter emitter, Object result) {
+        if (send(emitter, "done", result)) {
+            emitter.complete();
+        }
+    }
+
+    private boolean send(SseEmitter emitter, String eventName, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(eventName).data(data));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Could not send {} event, client likely disconnected: {}", eventName, e.getMessage());
+            return false;
+        }
+    }
+
+    // Stops reading from OpenAI when the client goes away or the stream times out
+    private void cancelOnDisconnect(SseEmitter emitter, Disposable subscription, OpenAiGuard.Permit permit) {
+        cancelOnDisconnect(emitter, () -> {
+            subscription.dispose();
+            permit.cancelled();
+        });
+    }
+
+    private void cancelOnDisconnect(SseEmitter emitter, Runnable cancel) {
+        emitter.onCompletion(cancel);
+        emitter.onTimeout(cancel);
+        emitter.onError(error -> cancel.run());
+    }
+
+    /**
+     * Accumulates streamed text and hands each complete line to the consumer.
+     */
+    private static class LineBuffer {
+        private final StringBuilder buffer = new StringBuilder();
+        private final Consumer<String> onLine;
+
+        LineBuffer(Consumer<String> onLine) {
+            this.onLine = onLine;
+        }
+
+        void append(String text) {
+            if (text == null) {
+                return;
+            }
+            buffer.append(text);
+            int newline;
+            while ((newline = buffer.indexOf("\n")) >= 0) {
+                String line = buffer.substring(0, newline);
+                buffer.delete(0, newline + 1);
+                if (!line.isBlank()) {
+                    onLine.accept(line);
                 }
             }
         }
 
-        // Add any remaining todos that weren't matched
-        int unmatchedCount = 0;
-        for (Todo todo : todos) {
-            if (reorderedTodos.stream().noneMatch(t -> t.getId().equals(todo.getId()))) {
-                reorderedTodos.add(new TodoResponse(todo));
-                unmatchedCount++;
-                logger.debug("Added unmatched todo: '{}'", todo.getTitle());
+        void flush() {
+            if (!buffer.toString().isBlank()) {
+                onLine.accept(buffer.toString());
+            }
+            buffer.setLength(0);
+        }
+    }
+
+    static List<TodoResponse> reorderTodosByAiResponse(List<TodoResponse> todos, String aiResponse) {
+        logger.debug("Starting todo reordering based on AI response");
+        TodoOrderMatcher matcher = new TodoOrderMatcher(todos);
+        List<TodoResponse> reorderedTodos = new ArrayList<>(todos.size());
+
+        int start = 0;
+        int length = aiResponse.length();
+        while (start < length) {
+            int end = aiResponse.indexOf('\n', start);
+            if (end < 0) {
+                end = length;
+            }
+            TodoResponse todo = matcher.match(aiResponse.substring(start, end));
+            if (todo != null) {
+                reorderedTodos.add(todo);
             }
+            start = end + 1;
         }
 
+        // Add any remaining todos that weren't matched
+        int matchedCount = reorderedTodos.size();
+        reorderedTodos.addAll(matcher.unmatched());
+
         logger.debug("Reordering completed: {} matched, {} unmatched, {} total",
-                    reorderedTodos.size() - unmatchedCount, unmatchedCount, reorderedTodos.size());
+                    matchedCount, reorderedTodos.size() - matchedCount, reorderedTodos.size());
         return reorderedTodos;
     }
 
     private List<AiSuggestionResponse> parseSuggestionsFromResponse(String response, Long userId) {
         logger.debug("Parsing suggestions from AI response for user ID: {}", userId);
-        List<AiSuggestionResponse> suggestions = new ArrayList<>();
+        List<AiSuggestion> parsed = new ArrayList<>();
         String[] lines = response.split("\n");
         logger.debug("Response contains {} lines to parse", lines.length);
 
         for (String line : lines) {
-            if (line.contains("|")) {
-                String[] parts = line.split("\\|");
-                if (parts.length >= 2) {
-                    String task = parts[0].trim().replaceAll("^\\d+\\.\\s*", "");
-                    String priorityStr = parts[1].trim().toUpperCase();
-
-                    logger.debug("Parsing suggestion: task='{}', priority='{}'", task, priorityStr);
-
-                    Todo.Priority priority;
-                    try {
-                        priority = Todo.Priority.valueOf(priorityStr);
-                        logger.debug("Successfully parsed priority: {}", priority);
-                    } catch (IllegalArgumentException e) {
-                        priority = Todo.Priority.MEDIUM;
-                        logger.warn("Invalid priority '{}', defaulting to MEDIUM", priorityStr);
-                    }
-
-                    try {
-                        AiSuggestion suggestion = new AiSuggestion(userId, task, priority);
-                        AiSuggestion saved = aiSuggestionRepository.save(suggestion);
-                        suggestions.add(new AiSuggestionResponse(saved));
-                        logger.debug("Saved AI suggestion: '{}' with priority {}", task, priority);
-                    } catch (Exception e) {
-                        logger.error("Failed to save AI suggestion: '{}'. Error: {}", task, e.getMessage());
-                    }
-                }
+            AiSuggestion suggestion = parseSuggestionLine(line, userId);
+            if (suggestion != null) {
+                parsed.add(suggestion);
             }
         }
 
+        List<AiSuggestionResponse> suggestions = saveSuggestions(userId, parsed);
         logger.info("Successfully parsed and saved {} suggestions for user ID: {}", suggestions.size(), userId);
         return suggestions;
     }
 
+    /**
+     * Parses a "TASK_NAME | PRIORITY" line, or returns {@code null} if the line is not a suggestion.
+     */
+    private AiSuggestion parseSuggestionLine(String line, Long userId) {
+        if (!line.contains("|")) {
+            return null;
+        }
+        String[] parts = line.split("\\|");
+        if (parts.length < 2) {
+            return null;
+        }
+        String task = parts[0].trim().replaceAll("^\\d+\\.\\s*", "");
+        String priorityStr = parts[1].trim().toUpperCase();
+
+        logger.debug("Parsing suggestion: task='{}', priority='{}'", task, priorityStr);
+
+        Todo.Priority priority;
+        try {
+            priority = Todo.Priority.valueOf(priorityStr);
+            logger.debug("Successfully parsed priority: {}", priority);
+        } catch (IllegalArgumentException e) {
+            priority = Todo.Priority.MEDIUM;
+            logger.warn("Invalid priority '{}', defaulting to MEDIUM", priorityStr);
+        }
+        return new AiSuggestion(userId, task, priority);
+    }
+
     private List<AiSuggestionResponse> createMockSuggestions(Long userId) {
         logger.debug("Creating mock suggestions for user ID: {}", userId);
         List<AiSuggestion> mockSuggestions = Arrays.asList(
@@ -270,32 +654,9 @@ public class OpenAiService {
                 new AiSuggestion(userId, "Take a 15-minute break for mental wellness", Todo.Priority.LOW)
         );
 
-        List<AiSuggestionResponse> result = mockSuggestions.stream()
-                .map(suggestion -> {
-                    try {
-                        AiSuggestion saved = aiSuggestionRepository.save(suggestion);
-                        logger.debug("Saved mock suggestion: '{}'", suggestion.getSuggestedTask());
-                        return new AiSuggestionResponse(saved);
-                    } catch (Exception e) {
-                        logger.error("Failed to save mock suggestion: '{}'. Error: {}",
-                                   suggestion.getSuggestedTask(), e.getMessage());
-                        return null;
-                    }
-                })
-                .filter(suggestion -> suggestion != null)
-                .collect(Collectors.toList());
+        List<AiSuggestionResponse> result = saveSuggestions(userId, mockSuggestions);
 
         logger.info("Created {} mock suggestions for user ID: {}", result.size(), userId);
         return result;
     }
-
-    private int getPriorityValue(Todo.Priority priority) {
-        switch (priority) {
-            case URGENT: return 1;
-            case HIGH: return 2;
-            case MEDIUM: return 3;
-            case LOW: return 4;
-            default: return 3;
-        }
-    }
 }
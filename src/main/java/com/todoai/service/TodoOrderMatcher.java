@@ -0,0 +1,206 @@
+package com.todoai.service;
+
+import com.todoai.dto.todo.TodoResponse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Maps lines of an AI prioritization back to todos. Each todo is sent in the prompt under a compact
+ * key ("T1", "T2", ...) and lines are resolved by that key, or by an exact (case-insensitive) title
+ * match for lines that only repeat the title. A line that is exactly an unmatched todo's title resolves
+ * to that todo even if it starts like a key (a todo titled "T3 report review"), and a key that is out of
+ * range or already taken falls back to matching the text after it as a title. Lines are scanned by hand
+ * and lookups are hash-based, so matching a whole response is linear in its size. Not thread-safe; use
+ * one instance per response.
+ */
+class TodoOrderMatcher {
+    private final List<TodoResponse> todos;
+    private final boolean[] matched;
+    // Titles can repeat: each maps to its first unmatched position, and nextWithTitle chains the rest in prompt order
+    private final Map<String, Integer> positionByTitle;
+    private final int[] nextWithTitle;
+    // Only then can a keyed line also be a title, which is worth a title lookup per keyed line
+    private final boolean keyLikeTitles;
+    private int matchedCount;
+
+    TodoOrderMatcher(List<TodoResponse> todos) {
+        this.todos = todos;
+        this.matched = new boolean[todos.size()];
+        this.positionByTitle = new HashMap<>(todos.size() * 2);
+        this.nextWithTitle = new int[todos.size()];
+        Arrays.fill(nextWithTitle, -1);
+
+        int[] lastWithTitle = new int[todos.size()];
+        boolean keyLike = false;
+        for (int i = 0; i < todos.size(); i++) {
+            String title = normalizeTitle(todos.get(i).getTitle());
+            Integer first = positionByTitle.putIfAbsent(title, i);
+            if (first == null) {
+                lastWithTitle[i] = i;
+            } else {
+                nextWithTitle[lastWithTitle[first]] = i;
+                lastWithTitle[first] = i;
+            }
+            keyLike |= keyEnd(title, title.startsWith("[") ? 1 : 0) > 0;
+        }
+        this.keyLikeTitles = keyLike;
+    }
+
+    /**
+     * The key a todo is sent under, given its position in the prompt.
+     */
+    static String key(int position) {
+        return "T" + (position + 1);
+    }
+
+    /**
+     * Returns the todo a response line refers to, or {@code null} if it matches none or one already taken.
+     * Accepts an optional list marker ("-", "*", "1.", "2)") before an optionally bracketed key ("[T12]").
+     */
+    TodoResponse match(String line) {
+        int length = line.length();
+        int body = skipSpaces(line, skipListMarker(line, skipSpaces(line, 0)));
+        boolean bracketed = body < length && line.charAt(body) == '[';
+        int digits = bracketed ? body + 2 : body + 1;
+        int keyEnd = keyEnd(line, bracketed ? body + 1 : body);
+        if (keyEnd < 0) {
+            return takeByTitle(line.substring(body));
+        }
+
+        if (keyLikeTitles) {
+            TodoResponse byTitle = takeByTitle(line.substring(body));
+            if (byTitle != null) {
+                return byTitle;
+            }
+        }
+        int position = parsePosition(line, digits, keyEnd);
+        if (position >= 0 && position < todos.size() && !matched[position]) {
+            return take(position);
+        }
+
+        // Hallucinated or repeated key: the model may still have echoed the title after it
+        int rest = bracketed && keyEnd < length && line.charAt(keyEnd) == ']' ? keyEnd + 1 : keyEnd;
+        while (rest < length && (line.charAt(rest) == ':' || line.charAt(rest) == '-'
+                || Character.isWhitespace(line.charAt(rest)))) {
+            rest++;
+        }
+        return rest < length ? takeByTitle(line.substring(rest)) : null;
+    }
+
+    /**
+     * Todos not matched so far, in prompt order.
+     */
+    List<TodoResponse> unmatched() {
+        List<TodoResponse> remaining = new ArrayList<>(todos.size() - matchedCount);
+        for (int i = 0; i < todos.size(); i++) {
+            if (!matched[i]) {
+                remaining.add(todos.get(i));
+            }
+        }
+        return remaining;
+    }
+
+    int getMatchedCount() {
+        return matchedCount;
+    }
+
+    private TodoResponse take(int position) {
+        if (matched[position]) {
+            return null;
+        }
+        matched[position] = true;
+        matchedCount++;
+        return todos.get(position);
+    }
+
+    private TodoResponse takeByTitle(String text) {
+        String title = normalizeTitle(text);
+        Integer first = positionByTitle.get(title);
+        if (first == null) {
+            return null;
+        }
+        int position = first;
+        while (position >= 0 && matched[position]) {
+            position = nextWithTitle[position];
+        }
+        if (position < 0) {
+            positionByTitle.remove(title);
+            return null;
+        }
+        positionByTitle.put(title, position);
+        return take(position);
+    }
+
+    /**
+     * End of the key digits if {@code line} has a key ("T" and digits, not followed by a word character
+     * other than a closing bracket) at {@code start}, otherwise -1.
+     */
+    private static int keyEnd(String line, int start) {
+        int length = line.length();
+        if (start >= length || (line.charAt(start) != 'T' && line.charAt(start) != 't')) {
+            return -1;
+        }
+        int i = start + 1;
+        while (i < length && isDigit(line.charAt(i))) {
+            i++;
+        }
+        if (i == start + 1) {
+            return -1;
+        }
+        // "T3x" or "T3_draft" is a word, not a key
+        if (i < length && (Character.isLetterOrDigit(line.charAt(i)) || line.charAt(i) == '_')) {
+            return -1;
+        }
+        return i;
+    }
+
+    private static int parsePosition(String line, int start, int end) {
+        // Guards against overflow from a hallucinated key
+        if (end - start > 9) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + (line.charAt(i) - '0');
+        }
+        return value - 1;
+    }
+
+    private static int skipListMarker(String line, int i) {
+        if (i >= line.length()) {
+            return i;
+        }
+        char c = line.charAt(i);
+        if (c == '-' || c == '*' || c == '\u2022') {
+            return i + 1;
+        }
+        int j = i;
+        while (j < line.length() && isDigit(line.charAt(j))) {
+            j++;
+        }
+        if (j > i && j < line.length() && (line.charAt(j) == '.' || line.charAt(j) == ')')) {
+            return j + 1;
+        }
+        return i;
+    }
+
+    private static int skipSpaces(String line, int i) {
+        while (i < line.length() && Character.isWhitespace(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static String normalizeTitle(String title) {
+        return title.trim().toLowerCase(Locale.ROOT);
+    }
+}
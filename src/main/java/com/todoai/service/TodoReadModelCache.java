@@ -0,0 +1,153 @@
+package com.todoai.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.todoai.dto.todo.TodoResponse;
+import com.todoai.event.TodosChangedEvent;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Per-user snapshot of all todos as {@link TodoResponse}s, newest first, so list reads are served
+ * without a connection or persistence context. Snapshots are immutable lists of immutable responses,
+ * shared between readers. Committed writes are applied to a cached snapshot
+ * (write-through) by replacing it with an updated copy. Snapshots are also reloaded once they reach
+ * the maximum age, which bounds how long a missed cross-node invalidation can be served.
+ */
+@Component
+public class TodoReadModelCache {
+    private static final Logger logger = LoggerFactory.getLogger(TodoReadModelCache.class);
+
+    // Same order as TodoRepository.findResponsesByUserId
+    static final Comparator<TodoResponse> NEWEST_FIRST = Comparator
+            .comparing(TodoResponse::getCreatedAt, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+            .thenComparing(TodoResponse::getId, Comparator.reverseOrder());
+
+    @Value("${todoai.cache.todos.maximum-weight:1000000}")
+    private long maximumWeight;
+
+    @Value("${todoai.cache.todos.ttl:30m}")
+    private Duration ttl;
+
+    @Value("${todoai.cache.todos.max-age:10m}")
+    private Duration maxAge;
+
+    private Cache<Long, List<TodoResponse>> snapshots;
+
+    // Bumped on every write so a load that raced with a write does not cache what it read
+    private Cache<Long, Long> writeVersions;
+
+    @PostConstruct
+    void init() {
+        snapshots = Caffeine.newBuilder()
+                // Weighted by todo count so a few huge lists cannot crowd out everyone else
+                .maximumWeight(maximumWeight)
+                .weigher((Long userId, List<TodoResponse> todos) -> todos.size() + 1)
+                .expireAfterAccess(ttl)
+                .expireAfterWrite(maxAge)
+                .recordStats()
+                .build();
+        // Must outlive any single load; a version that expires mid-load only causes a skipped put
+        writeVersions = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(5))
+                .build();
+    }
+
+    /**
+     * Returns the user's snapshot, loading it on a miss. The loader runs outside any cache lock.
+     */
+    public List<TodoResponse> get(Long userId, Supplier<List<TodoResponse>> loader) {
+        List<TodoResponse> cached = snapshots.getIfPresent(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        Long versionBefore = writeVersions.getIfPresent(userId);
+        List<TodoResponse> loaded = List.copyOf(loader.get());
+        snapshots.asMap().compute(userId, (key, current) -> {
+            if (current != null) {
+                return current;
+            }
+            Long versionAfter = writeVersions.getIfPresent(userId);
+            boolean unchanged = versionBefore == null ? versionAfter == null : versionBefore.equals(versionAfter);
+            return unchanged ? loaded : null;
+        });
+        logger.debug("Loaded todo snapshot of {} todos for user ID: {}", loaded.size(), userId);
+        return loaded;
+    }
+
+    public void invalidateUser(Long userId) {
+        bumpVersion(userId);
+        snapshots.invalidate(userId);
+    }
+
+    public void invalidateAll() {
+        snapshots.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodosChanged(TodosChangedEvent event) {
+        Long userId = event.getUserId();
+        if (!event.isDescribed()) {
+            invalidateUser(userId);
+            return;
+        }
+
+        bumpVersion(userId);
+        // Upserts and deletes are idempotent, so applying them to a snapshot loaded after the commit is harmless
+        snapshots.asMap().computeIfPresent(userId, (key, current) -> apply(current, event));
+    }
+
+    public long getHitCount() {
+        return snapshots.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return snapshots.stats().missCount();
+    }
+
+    public long getSize() {
+        return snapshots.estimatedSize();
+    }
+
+    private void bumpVersion(Long userId) {
+        writeVersions.asMap().merge(userId, 1L, Long::sum);
+    }
+
+    private static List<TodoResponse> apply(List<TodoResponse> current, TodosChangedEvent event) {
+        Set<Long> removed = new HashSet<>(event.getDeletedIds());
+        for (TodoResponse todo : event.getUpserted()) {
+            removed.add(todo.getId());
+        }
+
+        List<TodoResponse> updated = new ArrayList<>(current.size() + event.getUpserted().size());
+        for (TodoResponse todo : current) {
+            if (!removed.contains(todo.getId())) {
+                updated.add(todo);
+            }
+        }
+        Set<Long> deleted = new HashSet<>(event.getDeletedIds());
+        for (TodoResponse todo : event.getUpserted()) {
+            if (deleted.contains(todo.getId())) {
+                continue;
+            }
+            int position = Collections.binarySearch(updated, todo, NEWEST_FIRST);
+            updated.add(position < 0 ? -position - 1 : position, todo);
+        }
+        return List.copyOf(updated);
+    }
+}
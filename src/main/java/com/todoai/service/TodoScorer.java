@@ -0,0 +1,13 @@
+package com.todoai.service;
+
+import com.todoai.dto.todo.TodoResponse;
+
+import java.time.LocalDateTime;
+
+/**
+ * Scores a todo for local prioritization; higher scores come first. Declare another
+ * {@code @Primary} bean to replace the default heuristic.
+ */
+public interface TodoScorer {
+    double score(TodoResponse todo, LocalDateTime now);
+}
@@ -1,30 +1,158 @@
 package com.todoai.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.todoai.dto.page.CursorPage;
+import com.todoai.dto.page.PageCursor;
+import com.todoai.dto.todo.TodoBatchOperation;
+import com.todoai.dto.todo.TodoBatchRequest;
+import com.todoai.dto.todo.TodoBatchResponse;
+import com.todoai.dto.todo.TodoBatchResult;
 import com.todoai.dto.todo.TodoRequest;
 import com.todoai.dto.todo.TodoResponse;
 import com.todoai.entity.Todo;
 import com.todoai.entity.User;
+import com.todoai.event.TodosChangedEvent;
 import com.todoai.repository.TodoRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class TodoService {
+    public static final String SORT_CREATED = "created";
+    public static final String SORT_PRIORITY = "priority";
+
+    private static final int EXPORT_FLUSH_INTERVAL = 500;
+
     @Autowired
     private TodoRepository todoRepository;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TodoReadModelCache todoReadModelCache;
+
+    @Value("${todoai.pagination.default-limit:50}")
+    private int defaultPageLimit;
+
+    @Value("${todoai.pagination.max-limit:200}")
+    private int maxPageLimit;
+
+    @Value("${todoai.batch.max-operations:10000}")
+    private int maxBatchOperations;
+
+    /**
+     * All of the user's todos, newest first, from the read model cache. The list is shared with other
+     * readers and is unmodifiable.
+     */
     public List<TodoResponse> getUserTodos(Authentication authentication) {
         User user = (User) authentication.getPrincipal();
-        return todoRepository.findByUserIdOrderByCreatedAtDesc(user.getId())
-                .stream()
-                .map(TodoResponse::new)
-                .collect(Collectors.toList());
+        return todoReadModelCache.get(user.getId(), () -> loadUserTodos(user.getId()));
+    }
+
+    // Deliberately not read-only: a snapshot lives until the next write or TTL, so it must not come from a lagging replica
+    private List<TodoResponse> loadUserTodos(Long userId) {
+        return todoRepository.findResponsesByUserId(userId);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<TodoResponse> getUserTodosPage(String sort, String cursor, Integer limit,
+                                                     Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        int pageSize = limit == null ? defaultPageLimit : Math.max(1, Math.min(limit, maxPageLimit));
+        // Fetch one extra row to know whether another page follows
+        PageRequest fetch = PageRequest.of(0, pageSize + 1);
+
+        List<TodoResponse> rows;
+        if (sort == null || SORT_CREATED.equalsIgnoreCase(sort)) {
+            if (cursor == null) {
+                rows = todoRepository.findPageByUserId(user.getId(), fetch);
+            } else {
+                PageCursor after = PageCursor.decode(cursor, SORT_CREATED, 2);
+                rows = todoRepository.findPageByUserIdAfter(user.getId(),
+                        after.getDateTime(0), after.getLong(1), fetch);
+            }
+        } else if (SORT_PRIORITY.equalsIgnoreCase(sort)) {
+            if (cursor == null) {
+                rows = todoRepository.findPriorityPageByUserId(user.getId(), fetch);
+            } else {
+                PageCursor after = PageCursor.decode(cursor, SORT_PRIORITY, 4);
+                if (after.isNull(1)) {
+                    rows = todoRepository.findPriorityPageByUserIdAfterUndated(user.getId(),
+                            after.getInt(0), after.getDateTime(2), after.getLong(3), fetch);
+                } else {
+                    rows = todoRepository.findPriorityPageByUserIdAfter(user.getId(),
+                            after.getInt(0), after.getDateTime(1), after.getDateTime(2), after.getLong(3), fetch);
+                }
+            }
+        } else {
+            throw new RuntimeException("Unsupported sort: " + sort);
+        }
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            TodoResponse last = rows.get(pageSize - 1);
+            nextCursor = SORT_PRIORITY.equalsIgnoreCase(sort)
+                    ? PageCursor.encode(SORT_PRIORITY, Todo.Priority.rankOf(last.getPriority()), last.getDueDate(),
+                                        last.getCreatedAt(), last.getId())
+                    : PageCursor.encode(SORT_CREATED, last.getCreatedAt(), last.getId());
+        }
+
+        return new CursorPage<>(rows, nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportUserTodos(Authentication authentication, OutputStream out) throws IOException {
+        User user = (User) authentication.getPrincipal();
+        ObjectWriter writer = objectMapper.writerFor(TodoResponse.class);
+
+        // Projected rows never enter the persistence context, so it does not grow with the export
+        try (Stream<TodoResponse> todos = todoRepository.streamByUserId(user.getId())) {
+            Iterator<TodoResponse> iterator = todos.iterator();
+            int written = 0;
+            while (iterator.hasNext()) {
+                out.write(writer.writeValueAsBytes(iterator.next()));
+                out.write('\n');
+
+                if (++written % EXPORT_FLUSH_INTERVAL == 1) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
     }
 
+    // Transactional so the cache invalidation NOTIFY goes out on the insert's own connection and commit
+    @Transactional
     public TodoResponse createTodo(TodoRequest todoRequest, Authentication authentication) {
         User user = (User) authentication.getPrincipal();
 
@@ -36,10 +164,13 @@ public class TodoService {
             todoRequest.getDueDate()
         );
 
-        Todo savedTodo = todoRepository.save(todo);
-        return new TodoResponse(savedTodo);
+        TodoResponse savedTodo = new TodoResponse(todoRepository.save(todo));
+        eventPublisher.publishEvent(TodosChangedEvent.upserted(user.getId(), savedTodo));
+        return savedTodo;
     }
 
+    // Transactional so the save acts on the managed todo instead of re-reading it by id without user_id
+    @Transactional
     public TodoResponse updateTodo(Long todoId, TodoRequest todoRequest, Authentication authentication) {
         User user = (User) authentication.getPrincipal();
 
@@ -51,21 +182,24 @@ public class TodoService {
         todo.setPriority(todoRequest.getPriority());
         todo.setDueDate(todoRequest.getDueDate());
 
-        Todo updatedTodo = todoRepository.save(todo);
-        return new TodoResponse(updatedTodo);
+        TodoResponse updatedTodo = new TodoResponse(todoRepository.saveAndFlush(todo));
+        eventPublisher.publishEvent(TodosChangedEvent.upserted(user.getId(), updatedTodo));
+        return updatedTodo;
     }
 
+    @Transactional
     public TodoResponse completeTodo(Long todoId, Authentication authentication) {
         User user = (User) authentication.getPrincipal();
 
-        Todo todo = todoRepository.findByIdAndUserId(todoId, user.getId())
+        TodoResponse updatedTodo = todoRepository.completeByIdAndUserId(todoId, user.getId(), LocalDateTime.now())
+                .map(TodoResponse::new)
                 .orElseThrow(() -> new RuntimeException("Todo not found or access denied"));
-
-        todo.setCompleted(true);
-        Todo updatedTodo = todoRepository.save(todo);
-        return new TodoResponse(updatedTodo);
+        eventPublisher.publishEvent(TodosChangedEvent.upserted(user.getId(), updatedTodo));
+        return updatedTodo;
     }
 
+    // Same as updateTodo: delete() on a detached todo would first re-read it by id alone
+    @Transactional
     public void deleteTodo(Long todoId, Authentication authentication) {
         User user = (User) authentication.getPrincipal();
 
@@ -73,22 +207,147 @@ public class TodoService {
                 .orElseThrow(() -> new RuntimeException("Todo not found or access denied"));
 
         todoRepository.delete(todo);
+        eventPublisher.publishEvent(TodosChangedEvent.deleted(user.getId(), todoId));
     }
 
-    public List<Todo> getUserTodosForAI(Authentication authentication) {
+    @Transactional
+    public TodoBatchResponse applyBatch(TodoBatchRequest batchRequest, Authentication authentication) {
         User user = (User) authentication.getPrincipal();
-        return todoRepository.findByUserIdOrderByCreatedAtDesc(user.getId());
+        List<TodoBatchOperation> operations = batchRequest.getOperations();
+
+        if (operations.size() > maxBatchOperations) {
+            throw new RuntimeException("Batch cannot exceed " + maxBatchOperations + " operations");
+        }
+
+        // Load every referenced todo with a single query
+        Set<Long> ids = new HashSet<>();
+        for (TodoBatchOperation operation : operations) {
+            if (operation != null && operation.getId() != null) {
+                ids.add(operation.getId());
+            }
+        }
+        Map<Long, Todo> todos = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (Todo todo : todoRepository.findByUserIdAndIdIn(user.getId(), ids)) {
+                todos.put(todo.getId(), todo);
+            }
+        }
+
+        TodoBatchResult[] results = new TodoBatchResult[operations.size()];
+        Todo[] applied = new Todo[operations.size()];
+        List<Todo> created = new ArrayList<>();
+        List<Todo> deleted = new ArrayList<>();
+
+        for (int i = 0; i < operations.size(); i++) {
+            TodoBatchOperation operation = operations.get(i);
+            TodoBatchOperation.Type type = operation != null ? operation.getOp() : null;
+            Long id = operation != null ? operation.getId() : null;
+
+            if (type == null) {
+                results[i] = TodoBatchResult.error(i, null, id, "Operation type is required");
+                continue;
+            }
+
+            if (type == TodoBatchOperation.Type.CREATE || type == TodoBatchOperation.Type.UPDATE) {
+                String invalid = validateTodoRequest(operation.getTodo());
+                if (invalid != null) {
+                    results[i] = TodoBatchResult.error(i, type, id, invalid);
+                    continue;
+                }
+            }
+
+            if (type == TodoBatchOperation.Type.CREATE) {
+                TodoRequest todoRequest = operation.getTodo();
+                Todo todo = new Todo(
+                    user.getId(),
+                    todoRequest.getTitle(),
+                    todoRequest.getDescription(),
+                    todoRequest.getPriority(),
+                    todoRequest.getDueDate()
+                );
+                created.add(todo);
+                applied[i] = todo;
+                continue;
+            }
+
+            Todo todo = id != null ? todos.get(id) : null;
+            if (todo == null) {
+                results[i] = TodoBatchResult.error(i, type, id, "Todo not found or access denied");
+                continue;
+            }
+
+            switch (type) {
+                case UPDATE:
+                    TodoRequest todoRequest = operation.getTodo();
+                    todo.setTitle(todoRequest.getTitle());
+                    todo.setDescription(todoRequest.getDescription());
+                    todo.setPriority(todoRequest.getPriority());
+                    todo.setDueDate(todoRequest.getDueDate());
+                    applied[i] = todo;
+                    break;
+                case COMPLETE:
+                    todo.setCompleted(true);
+                    applied[i] = todo;
+                    break;
+                case DELETE:
+                    // Later operations in the same batch no longer see this todo
+                    todos.remove(id);
+                    deleted.add(todo);
+                    results[i] = TodoBatchResult.ok(i, type, id, null);
+                    break;
+                default:
+                    results[i] = TodoBatchResult.error(i, type, id, "Unsupported operation: " + type);
+            }
+        }
+
+        // Sequence-generated ids let Hibernate send these as JDBC batches on flush
+        todoRepository.saveAll(created);
+        todoRepository.deleteAll(deleted);
+        todoRepository.flush();
+
+        List<TodoBatchResult> resultList = new ArrayList<>(results.length);
+        // A todo touched by several operations ends up with its final state
+        Map<Long, TodoResponse> upserted = new LinkedHashMap<>();
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                TodoResponse todo = new TodoResponse(applied[i]);
+                results[i] = TodoBatchResult.ok(i, operations.get(i).getOp(), todo.getId(), todo);
+                upserted.put(todo.getId(), todo);
+            }
+            resultList.add(results[i]);
+        }
+        List<Long> deletedIds = deleted.stream().map(Todo::getId).collect(Collectors.toList());
+        eventPublisher.publishEvent(new TodosChangedEvent(user.getId(), new ArrayList<>(upserted.values()), deletedIds));
+        return new TodoBatchResponse(resultList);
+    }
+
+    private String validateTodoRequest(TodoRequest todoRequest) {
+        if (todoRequest == null) {
+            return "Todo is required";
+        }
+        Set<ConstraintViolation<TodoRequest>> violations = validator.validate(todoRequest);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    public List<TodoResponse> getUserTodosForAI(Authentication authentication) {
+        return getUserTodos(authentication);
     }
 
+    @Transactional
     public TodoResponse toggleTodoCompletion(Long todoId, Authentication authentication) {
         User user = (User) authentication.getPrincipal();
 
-        Todo todo = todoRepository.findByIdAndUserId(todoId, user.getId())
+        // Toggle the completion status in the database
+        TodoResponse updatedTodo = todoRepository.toggleCompletionByIdAndUserId(todoId, user.getId(), LocalDateTime.now())
+                .map(TodoResponse::new)
                 .orElseThrow(() -> new RuntimeException("Todo not found or access denied"));
-
-        // Toggle the completion status
-        todo.setCompleted(!todo.isCompleted());
-        Todo updatedTodo = todoRepository.save(todo);
-        return new TodoResponse(updatedTodo);
+        eventPublisher.publishEvent(TodosChangedEvent.upserted(user.getId(), updatedTodo));
+        return updatedTodo;
     }
 }
@@ -1,5 +1,6 @@
 package com.todoai.service;
 
+import com.todoai.config.ReplicaRoutingDataSource;
 import com.todoai.entity.User;
 import com.todoai.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,10 +15,12 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     UserRepository userRepository;
 
+    // Read from the primary: the filter loads principals before authentication, so replica stickiness
+    // cannot apply, and a principal read from a lagging replica would then stay cached for the cache TTL
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
+        User user = ReplicaRoutingDataSource.onPrimary(() -> userRepository.findByUsername(username))
                 .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username));
 
         return user;
@@ -0,0 +1,52 @@
+package com.todoai.util;
+
+import java.time.Duration;
+
+/**
+ * Token bucket that refills continuously up to its capacity. Consumption never blocks; callers
+ * that cannot take enough tokens are expected to reject or degrade.
+ */
+public class TokenBucket {
+    private final long capacity;
+    private final double refillPerNano;
+    private double available;
+    private long lastRefill;
+
+    public TokenBucket(long capacity, Duration refillPeriod) {
+        this.capacity = capacity;
+        this.refillPerNano = (double) capacity / refillPeriod.toNanos();
+        this.available = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    public synchronized boolean tryConsume(long tokens) {
+        refill();
+        if (available < tokens) {
+            return false;
+        }
+        available -= tokens;
+        return true;
+    }
+
+    /**
+     * Returns tokens taken by a call that was rejected later on.
+     */
+    public synchronized void refund(long tokens) {
+        available = Math.min(capacity, available + tokens);
+    }
+
+    public synchronized long getAvailable() {
+        refill();
+        return (long) available;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        available = Math.min(capacity, available + (now - lastRefill) * refillPerNano);
+        lastRefill = now;
+    }
+}
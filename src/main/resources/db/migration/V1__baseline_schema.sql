@@ -0,0 +1,34 @@
+-- Baseline schema for users, todos and ai_suggestions.
+-- Written to be idempotent so it also applies cleanly to databases created before migrations existed.
+
+CREATE TABLE IF NOT EXISTS users (
+    id          BIGSERIAL PRIMARY KEY,
+    username    VARCHAR(50)  NOT NULL UNIQUE,
+    email       VARCHAR(255) NOT NULL UNIQUE,
+    password    VARCHAR(255) NOT NULL,
+    created_at  TIMESTAMP(6)
+);
+
+-- Todo ids are allocated by Hibernate's pooled optimizer, which needs the increment to match allocationSize
+CREATE SEQUENCE IF NOT EXISTS todos_id_seq INCREMENT BY 50;
+ALTER SEQUENCE todos_id_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS todos (
+    id            BIGINT PRIMARY KEY DEFAULT nextval('todos_id_seq'),
+    user_id       BIGINT        NOT NULL REFERENCES users (id),
+    title         VARCHAR(255)  NOT NULL,
+    description   VARCHAR(1000),
+    priority      VARCHAR(255)  CHECK (priority IN ('LOW', 'MEDIUM', 'HIGH', 'URGENT')),
+    is_completed  BOOLEAN       NOT NULL DEFAULT FALSE,
+    due_date      TIMESTAMP(6),
+    created_at    TIMESTAMP(6),
+    updated_at    TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS ai_suggestions (
+    id              BIGSERIAL PRIMARY KEY,
+    user_id         BIGINT        NOT NULL REFERENCES users (id),
+    suggested_task  VARCHAR(500)  NOT NULL,
+    priority        VARCHAR(255)  CHECK (priority IN ('LOW', 'MEDIUM', 'HIGH', 'URGENT')),
+    created_at      TIMESTAMP(6)
+);
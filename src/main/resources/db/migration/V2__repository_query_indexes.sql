@@ -0,0 +1,14 @@
+-- Composite indexes matching the repository queries, so per-user reads are index range scans
+-- instead of sequential scans of the shared tables.
+
+-- TodoRepository.findByUserIdOrderByCreatedAtDesc, findPageByUserId, findPageByUserIdAfter, streamByUserId
+CREATE INDEX IF NOT EXISTS idx_todos_user_created
+    ON todos (user_id, created_at DESC, id DESC);
+
+-- TodoRepository.findByUserIdAndIsCompletedOrderByCreatedAtDesc
+CREATE INDEX IF NOT EXISTS idx_todos_user_completed_created
+    ON todos (user_id, is_completed, created_at DESC);
+
+-- AiSuggestionRepository.findByUserIdOrderByCreatedAtDesc, deleteByUserId
+CREATE INDEX IF NOT EXISTS idx_ai_suggestions_user_created
+    ON ai_suggestions (user_id, created_at DESC);
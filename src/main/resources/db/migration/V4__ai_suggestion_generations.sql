@@ -0,0 +1,7 @@
+-- AI suggestions are written in batches: ids come from Hibernate's pooled optimizer (allocationSize 50),
+-- and every row from one /api/ai/suggest call shares a generation_id.
+
+CREATE SEQUENCE IF NOT EXISTS ai_suggestions_id_seq;
+ALTER SEQUENCE ai_suggestions_id_seq INCREMENT BY 50;
+
+ALTER TABLE ai_suggestions ADD COLUMN IF NOT EXISTS generation_id UUID;
@@ -0,0 +1,10 @@
+-- Supports keyset pagination of suggestion history and the scheduled retention purge.
+
+-- AiSuggestionRepository.findPageByUserId, findPageByUserIdAfter, deleteBeyondNewestPerUser
+CREATE INDEX IF NOT EXISTS idx_ai_suggestions_user_created_id
+    ON ai_suggestions (user_id, created_at DESC, id DESC);
+DROP INDEX IF EXISTS idx_ai_suggestions_user_created;
+
+-- AiSuggestionRepository.deleteOlderThan
+CREATE INDEX IF NOT EXISTS idx_ai_suggestions_created
+    ON ai_suggestions (created_at);
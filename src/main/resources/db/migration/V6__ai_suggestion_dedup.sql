@@ -0,0 +1,42 @@
+-- One row per distinct suggestion per user: task_hash is the SHA-256 of the normalized task text
+-- (lower case, runs of non-alphanumerics collapsed to one space, trimmed), and a repeat suggestion
+-- refreshes last_suggested_at instead of inserting a new row.
+
+ALTER TABLE ai_suggestions ADD COLUMN IF NOT EXISTS task_hash VARCHAR(64);
+ALTER TABLE ai_suggestions ADD COLUMN IF NOT EXISTS last_suggested_at TIMESTAMP(6);
+
+UPDATE ai_suggestions
+   SET task_hash = encode(sha256(convert_to(
+           btrim(regexp_replace(lower(suggested_task), '[^[:alnum:]]+', ' ', 'g')), 'UTF8')), 'hex')
+ WHERE task_hash IS NULL;
+
+-- Existing duplicates collapse into their newest row, which keeps the latest suggestion time
+UPDATE ai_suggestions s
+   SET last_suggested_at = g.latest
+  FROM (SELECT user_id, task_hash, max(COALESCE(created_at, now())) AS latest
+          FROM ai_suggestions
+         GROUP BY user_id, task_hash) g
+ WHERE s.user_id = g.user_id AND s.task_hash = g.task_hash AND s.last_suggested_at IS NULL;
+
+DELETE FROM ai_suggestions s
+ USING ai_suggestions newer
+ WHERE s.user_id = newer.user_id
+   AND s.task_hash = newer.task_hash
+   AND (COALESCE(newer.created_at, '-infinity'), newer.id) > (COALESCE(s.created_at, '-infinity'), s.id);
+
+ALTER TABLE ai_suggestions ALTER COLUMN task_hash SET NOT NULL;
+ALTER TABLE ai_suggestions ALTER COLUMN last_suggested_at SET NOT NULL;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_ai_suggestions_user_task_hash
+    ON ai_suggestions (user_id, task_hash);
+
+-- History is now ordered by last_suggested_at: AiSuggestionRepository.findByUserIdOrderByLastSuggestedAtDesc,
+-- findPageByUserId, findPageByUserIdAfter, deleteBeyondNewestPerUser
+CREATE INDEX IF NOT EXISTS idx_ai_suggestions_user_last_suggested
+    ON ai_suggestions (user_id, last_suggested_at DESC, id DESC);
+DROP INDEX IF EXISTS idx_ai_suggestions_user_created_id;
+
+-- AiSuggestionRepository.deleteOlderThan
+CREATE INDEX IF NOT EXISTS idx_ai_suggestions_last_suggested
+    ON ai_suggestions (last_suggested_at);
+DROP INDEX IF EXISTS idx_ai_suggestions_created;
@@ -0,0 +1,123 @@
+-- Opt-in (add classpath:db/partitioning to the Flyway locations): rebuilds todos and ai_suggestions as
+-- tables hash-partitioned by user_id into ${partitions} partitions. Every repository query filters on
+-- user_id, so each one is pruned to a single partition. Primary keys become (user_id, id) because a
+-- partitioned table's unique keys must contain the partition key.
+-- Each table is converted once, by copying its rows in this migration's transaction; size the
+-- maintenance window to the data. Changing the partition count later requires repartitioning by hand.
+-- Ids must come from standalone sequences that outlive the old tables. Databases first created by
+-- Hibernate have identity columns instead, whose sequences cannot be detached; those are replaced
+-- by a standalone sequence continuing after the highest id handed out.
+
+DO $$
+DECLARE
+    partition_count CONSTANT INTEGER := ${partitions};
+    i INTEGER;
+    tbl TEXT;
+    last_id BIGINT;
+BEGIN
+    FOREACH tbl IN ARRAY ARRAY['todos', 'ai_suggestions'] LOOP
+        IF EXISTS (SELECT 1 FROM pg_attribute
+                    WHERE attrelid = format('%I', tbl)::regclass AND attname = 'id' AND attidentity <> '') THEN
+            EXECUTE format('SELECT GREATEST(COALESCE(max(id), 1), COALESCE(pg_sequence_last_value(%L), 1)) FROM %I',
+                           pg_get_serial_sequence(tbl, 'id'), tbl)
+               INTO last_id;
+            -- Drops the identity sequence, which usually frees the <table>_id_seq name for the standalone one
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY', tbl);
+            -- Matches the entities' allocationSize; pooled ids are handed out below each nextval
+            EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I', tbl || '_id_seq');
+            EXECUTE format('ALTER SEQUENCE %I INCREMENT BY 50', tbl || '_id_seq');
+            PERFORM setval(format('%I', tbl || '_id_seq'), last_id, true);
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', tbl, tbl || '_id_seq');
+        END IF;
+    END LOOP;
+
+    IF NOT EXISTS (SELECT 1 FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid
+                    WHERE c.relname = 'todos' AND c.relnamespace = current_schema()::regnamespace) THEN
+        ALTER SEQUENCE todos_id_seq OWNED BY NONE;
+        ALTER TABLE todos RENAME TO todos_unpartitioned;
+        -- Index names are schema-wide, so free them for the new table
+        ALTER TABLE todos_unpartitioned DROP CONSTRAINT IF EXISTS todos_pkey;
+        DROP INDEX IF EXISTS idx_todos_user_created;
+        DROP INDEX IF EXISTS idx_todos_user_completed_created;
+        DROP INDEX IF EXISTS idx_todos_user_priority;
+
+        CREATE TABLE todos (
+            id             BIGINT        NOT NULL DEFAULT nextval('todos_id_seq'),
+            user_id        BIGINT        NOT NULL REFERENCES users (id),
+            title          VARCHAR(255)  NOT NULL,
+            description    VARCHAR(1000),
+            priority       VARCHAR(255)  CHECK (priority IN ('LOW', 'MEDIUM', 'HIGH', 'URGENT')),
+            priority_rank  INTEGER       NOT NULL,
+            is_completed   BOOLEAN       NOT NULL DEFAULT FALSE,
+            due_date       TIMESTAMP(6),
+            created_at     TIMESTAMP(6),
+            updated_at     TIMESTAMP(6),
+            PRIMARY KEY (user_id, id)
+        ) PARTITION BY HASH (user_id);
+
+        FOR i IN 0 .. partition_count - 1 LOOP
+            EXECUTE format('CREATE TABLE todos_p%s PARTITION OF todos FOR VALUES WITH (MODULUS %s, REMAINDER %s)',
+                           i, partition_count, i);
+        END LOOP;
+
+        INSERT INTO todos (id, user_id, title, description, priority, priority_rank, is_completed,
+                           due_date, created_at, updated_at)
+        SELECT id, user_id, title, description, priority, priority_rank, is_completed,
+               due_date, created_at, updated_at
+          FROM todos_unpartitioned;
+        DROP TABLE todos_unpartitioned;
+
+        -- Same indexes as V2 and V3, created on every partition
+        CREATE INDEX idx_todos_user_created
+            ON todos (user_id, created_at DESC, id DESC);
+        CREATE INDEX idx_todos_user_completed_created
+            ON todos (user_id, is_completed, created_at DESC);
+        CREATE INDEX idx_todos_user_priority
+            ON todos (user_id, priority_rank, due_date ASC NULLS LAST, created_at DESC, id DESC);
+    END IF;
+
+    IF NOT EXISTS (SELECT 1 FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid
+                    WHERE c.relname = 'ai_suggestions' AND c.relnamespace = current_schema()::regnamespace) THEN
+        -- The sequence was created by the original BIGSERIAL column and would be dropped with the old table
+        ALTER SEQUENCE ai_suggestions_id_seq OWNED BY NONE;
+        ALTER TABLE ai_suggestions RENAME TO ai_suggestions_unpartitioned;
+        ALTER TABLE ai_suggestions_unpartitioned DROP CONSTRAINT IF EXISTS ai_suggestions_pkey;
+        DROP INDEX IF EXISTS uq_ai_suggestions_user_task_hash;
+        DROP INDEX IF EXISTS idx_ai_suggestions_user_last_suggested;
+        DROP INDEX IF EXISTS idx_ai_suggestions_last_suggested;
+
+        CREATE TABLE ai_suggestions (
+            id                 BIGINT        NOT NULL DEFAULT nextval('ai_suggestions_id_seq'),
+            user_id            BIGINT        NOT NULL REFERENCES users (id),
+            suggested_task     VARCHAR(500)  NOT NULL,
+            priority           VARCHAR(255)  CHECK (priority IN ('LOW', 'MEDIUM', 'HIGH', 'URGENT')),
+            priority_rank      INTEGER       NOT NULL,
+            task_hash          VARCHAR(64)   NOT NULL,
+            created_at         TIMESTAMP(6),
+            last_suggested_at  TIMESTAMP(6)  NOT NULL,
+            generation_id      UUID,
+            PRIMARY KEY (user_id, id)
+        ) PARTITION BY HASH (user_id);
+
+        FOR i IN 0 .. partition_count - 1 LOOP
+            EXECUTE format('CREATE TABLE ai_suggestions_p%s PARTITION OF ai_suggestions FOR VALUES WITH (MODULUS %s, REMAINDER %s)',
+                           i, partition_count, i);
+        END LOOP;
+
+        INSERT INTO ai_suggestions (id, user_id, suggested_task, priority, priority_rank, task_hash,
+                                    created_at, last_suggested_at, generation_id)
+        SELECT id, user_id, suggested_task, priority, priority_rank, task_hash,
+               created_at, last_suggested_at, generation_id
+          FROM ai_suggestions_unpartitioned;
+        DROP TABLE ai_suggestions_unpartitioned;
+
+        -- Same indexes as V6, created on every partition
+        CREATE UNIQUE INDEX uq_ai_suggestions_user_task_hash
+            ON ai_suggestions (user_id, task_hash);
+        CREATE INDEX idx_ai_suggestions_user_last_suggested
+            ON ai_suggestions (user_id, last_suggested_at DESC, id DESC);
+        CREATE INDEX idx_ai_suggestions_last_suggested
+            ON ai_suggestions (last_suggested_at);
+    END IF;
+END
+$$;
@@ -0,0 +1,134 @@
+package com.todoai.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Runs repository methods and explains the SQL they issue. Statements are prepared with their bind
+ * parameters and explained with placeholder values of each parameter's type, planned as custom plans
+ * so partition pruning on the user_id value shows in the plan.
+ */
+final class QueryPlans {
+    private static final String STATEMENT = "plan_probe";
+
+    private QueryPlans() {
+    }
+
+    /**
+     * Runs {@code call} and returns the statements it sent that touch {@code table}, skipping inserts
+     * and sequence calls.
+     */
+    static List<String> statementsOf(Runnable call, String table) {
+        RecordingStatementInspector.drain();
+        call.run();
+        Pattern touches = Pattern.compile("\\b" + table + "\\b", Pattern.CASE_INSENSITIVE);
+        return RecordingStatementInspector.drain().stream()
+                .filter(sql -> touches.matcher(sql).find())
+                .filter(sql -> !sql.trim().toLowerCase(Locale.ROOT).startsWith("insert"))
+                .filter(sql -> !sql.contains("nextval"))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * EXPLAIN output of {@code sql}; with {@code indexesOnly}, sequential scans are disabled so the
+     * plan shows whether an index can serve the query at all, independent of table size.
+     */
+    static String explain(JdbcTemplate jdbcTemplate, String sql, boolean indexesOnly) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET plan_cache_mode = force_custom_plan");
+                statement.execute("SET enable_seqscan = " + (indexesOnly ? "off" : "on"));
+                statement.execute("PREPARE " + STATEMENT + " AS " + numberParameters(sql));
+                try {
+                    List<String> arguments = new ArrayList<>();
+                    try (ResultSet rs = statement.executeQuery("SELECT parameter_types::text[] " +
+                            "FROM pg_prepared_statements WHERE name = '" + STATEMENT + "'")) {
+                        rs.next();
+                        Array types = rs.getArray(1);
+                        for (String type : (String[]) types.getArray()) {
+                            arguments.add(placeholder(type));
+                        }
+                    }
+                    String execute = "EXPLAIN EXECUTE " + STATEMENT +
+                            (arguments.isEmpty() ? "" : "(" + String.join(", ", arguments) + ")");
+                    StringBuilder plan = new StringBuilder();
+                    try (ResultSet rs = statement.executeQuery(execute)) {
+                        while (rs.next()) {
+                            plan.append(rs.getString(1)).append('\n');
+                        }
+                    }
+                    return plan.toString();
+                } finally {
+                    statement.execute("DEALLOCATE " + STATEMENT);
+                    statement.execute("RESET plan_cache_mode");
+                    statement.execute("RESET enable_seqscan");
+                }
+            }
+        });
+    }
+
+    /**
+     * Names of the partitions of {@code table} that the plan reads or writes.
+     */
+    static Set<String> partitionsIn(String plan, String table) {
+        Matcher matcher = Pattern.compile("\\b" + table + "_p\\d+\\b").matcher(plan);
+        Set<String> partitions = new TreeSet<>();
+        while (matcher.find()) {
+            partitions.add(matcher.group());
+        }
+        return partitions;
+    }
+
+    // JDBC "?" placeholders to PREPARE's "$n", leaving string literals alone
+    private static String numberParameters(String sql) {
+        StringBuilder numbered = new StringBuilder(sql.length() + 16);
+        boolean inLiteral = false;
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '\'') {
+                inLiteral = !inLiteral;
+            }
+            if (c == '?' && !inLiteral) {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+
+    private static String placeholder(String type) throws SQLException {
+        if (type.startsWith("timestamp") || type.equals("date")) {
+            return "'2024-01-01 00:00:00'";
+        }
+        switch (type) {
+            case "bigint":
+                return "42";
+            case "integer":
+            case "smallint":
+                return "1";
+            case "boolean":
+                return "false";
+            case "uuid":
+                return "'00000000-0000-0000-0000-000000000000'";
+            case "text":
+            case "character varying":
+                return "'x'";
+            default:
+                throw new SQLException("No placeholder for parameter type " + type);
+        }
+    }
+}
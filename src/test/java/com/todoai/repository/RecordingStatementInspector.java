@@ -0,0 +1,26 @@
+package com.todoai.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records the SQL Hibernate sends, so tests can explain exactly what a repository method runs.
+ * Registered through {@code spring.jpa.properties.hibernate.session_factory.statement_inspector}.
+ */
+public class RecordingStatementInspector implements StatementInspector {
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        statements.add(sql);
+        return sql;
+    }
+
+    static List<String> drain() {
+        List<String> recorded = List.copyOf(statements);
+        statements.clear();
+        return recorded;
+    }
+}
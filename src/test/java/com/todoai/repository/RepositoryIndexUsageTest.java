@@ -0,0 +1,101 @@
+package com.todoai.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks against the Flyway schema that an index serves every repository query: with sequential
+ * scans disabled, a query without a usable index still plans a Seq Scan.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.todoai.repository.RecordingStatementInspector")
+@Testcontainers
+class RepositoryIndexUsageTest {
+    private static final Long USER_ID = 42L;
+    private static final LocalDateTime NOW = LocalDateTime.now();
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private AiSuggestionRepository aiSuggestionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void todoQueriesUseIndexes() {
+        assertIndexed("todos", () -> todoRepository.findByUserIdAndIsCompletedOrderByCreatedAtDesc(USER_ID, false));
+        assertIndexed("todos", () -> todoRepository.findByIdAndUserId(1L, USER_ID));
+        assertIndexed("todos", () -> todoRepository.findByUserIdAndIdIn(USER_ID, List.of(1L, 2L, 3L)));
+        assertIndexed("todos", () -> todoRepository.findResponsesByUserId(USER_ID));
+        assertIndexed("todos", () -> todoRepository.findByUserIdOrderByPriorityAndDueDate(USER_ID));
+        assertIndexed("todos", () -> todoRepository.findPageByUserId(USER_ID, PageRequest.of(0, 51)));
+        assertIndexed("todos", () -> todoRepository.findPageByUserIdAfter(USER_ID, NOW, 1L, PageRequest.of(0, 51)));
+        assertIndexed("todos", () -> todoRepository.findPriorityPageByUserId(USER_ID, PageRequest.of(0, 51)));
+        assertIndexed("todos", () -> todoRepository.findPriorityPageByUserIdAfter(
+                USER_ID, 2, NOW, NOW, 1L, PageRequest.of(0, 51)));
+        assertIndexed("todos", () -> todoRepository.findPriorityPageByUserIdAfterUndated(
+                USER_ID, 2, NOW, 1L, PageRequest.of(0, 51)));
+        assertIndexed("todos", () -> transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<?> todos = todoRepository.streamByUserId(USER_ID)) {
+                todos.forEach(todo -> { });
+            }
+        }));
+        assertIndexed("todos", () -> todoRepository.completeByIdAndUserId(1L, USER_ID, NOW));
+        assertIndexed("todos", () -> todoRepository.toggleCompletionByIdAndUserId(1L, USER_ID, NOW));
+    }
+
+    @Test
+    void aiSuggestionQueriesUseIndexes() {
+        assertIndexed("ai_suggestions", () -> aiSuggestionRepository.findByUserIdAndTaskHashIn(USER_ID, List.of("a", "b")));
+        assertIndexed("ai_suggestions", () -> aiSuggestionRepository.findResponsesByUserId(USER_ID));
+        assertIndexed("ai_suggestions", () -> aiSuggestionRepository.findPageByUserId(USER_ID, PageRequest.of(0, 51)));
+        assertIndexed("ai_suggestions", () -> aiSuggestionRepository.findPageByUserIdAfter(
+                USER_ID, NOW, 1L, PageRequest.of(0, 51)));
+        assertIndexed("ai_suggestions", () -> aiSuggestionRepository.deleteByUserId(USER_ID));
+        assertIndexed("ai_suggestions", () -> aiSuggestionRepository.deleteOlderThan(NOW, 1000));
+        assertIndexed("ai_suggestions", () -> aiSuggestionRepository.findUserIdsWithMoreThan(100));
+        assertIndexed("ai_suggestions", () -> aiSuggestionRepository.deleteBeyondNewestForUser(USER_ID, 100, 1000));
+    }
+
+    private void assertIndexed(String table, Runnable call) {
+        List<String> statements = QueryPlans.statementsOf(call, table);
+        assertThat(statements).isNotEmpty();
+        for (String sql : statements) {
+            String plan = QueryPlans.explain(jdbcTemplate, sql, true);
+            assertThat(plan)
+                    .as("plan of %s", sql)
+                    .contains("Index")
+                    .doesNotContain("Seq Scan");
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.todoai.repository;
+
+import com.todoai.dto.todo.TodoResponse;
+import com.todoai.entity.Todo;
+import com.todoai.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bytes allocated to read a user's todo list as {@link TodoResponse}s: hydrating managed entities and
+ * converting them, as the list endpoints used to, versus the SELECT_RESPONSE constructor projection.
+ */
+@SpringBootTest
+@Testcontainers
+class TodoProjectionAllocationTest {
+    private static final Logger logger = LoggerFactory.getLogger(TodoProjectionAllocationTest.class);
+
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURED_RUNS = 5;
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1_000, 10_000})
+    void projectionAllocatesLessThanEntityHydration(int todoCount) {
+        User user = userRepository.save(new User("alloc" + todoCount, "alloc" + todoCount + "@example.com", "password"));
+        jdbcTemplate.update("INSERT INTO todos (user_id, title, description, priority, priority_rank, is_completed, " +
+                "created_at, updated_at) SELECT ?, 'Todo ' || n, 'Description of todo ' || n, 'MEDIUM', 2, false, " +
+                "now() - n * interval '1 second', now() FROM generate_series(1, ?) n", user.getId(), todoCount);
+
+        long entityBytes = allocatedBytes(() -> entityManager
+                .createQuery("SELECT t FROM Todo t WHERE t.userId = :userId ORDER BY t.createdAt DESC, t.id DESC",
+                        Todo.class)
+                .setParameter("userId", user.getId())
+                .getResultList().stream()
+                .map(TodoResponse::new)
+                .collect(Collectors.toList()));
+        long projectionBytes = allocatedBytes(() -> todoRepository.findResponsesByUserId(user.getId()));
+
+        logger.info("Reading {} todos allocated {} KiB with entities, {} KiB with the projection ({}%)",
+                todoCount, entityBytes / 1024, projectionBytes / 1024, projectionBytes * 100 / entityBytes);
+        assertThat(projectionBytes).isLessThan(entityBytes);
+    }
+
+    /**
+     * Lowest allocation of one read on this thread, each read in its own transaction as in production.
+     */
+    private long allocatedBytes(Supplier<List<TodoResponse>> read) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            transactionTemplate.execute(status -> read.get());
+        }
+        long lowest = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long before = threads.getThreadAllocatedBytes(threadId);
+            transactionTemplate.execute(status -> read.get());
+            lowest = Math.min(lowest, threads.getThreadAllocatedBytes(threadId) - before);
+        }
+        return lowest;
+    }
+}
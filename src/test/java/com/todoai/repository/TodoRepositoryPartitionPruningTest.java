@@ -0,0 +1,158 @@
+package com.todoai.repository;
+
+import com.todoai.entity.Todo;
+import com.todoai.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Applies the partitioning script to a database that Hibernate originally created with identity id
+ * columns, then checks that ids keep increasing and that every TodoRepository query is pruned to a
+ * single partition.
+ */
+@SpringBootTest(properties = {
+        "spring.flyway.locations=classpath:db/migration,classpath:db/partitioning",
+        "spring.flyway.placeholders.partitions=4",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.todoai.repository.RecordingStatementInspector"
+})
+@Testcontainers
+class TodoRepositoryPartitionPruningTest {
+    private static final Long USER_ID = 42L;
+    private static final LocalDateTime NOW = LocalDateTime.now();
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withInitScript("db/hibernate_identity_schema.sql");
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void identityColumnsAreReplacedBySequencesContinuingAfterExistingIds() {
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid " +
+                "WHERE c.relname IN ('todos', 'ai_suggestions')", Long.class)).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_attribute WHERE attrelid IN ('todos'::regclass, 'ai_suggestions'::regclass) " +
+                "AND attname = 'id' AND attidentity <> ''", Long.class)).isZero();
+
+        Long legacyMaxId = jdbcTemplate.queryForObject("SELECT max(id) FROM todos", Long.class);
+        User legacy = userRepository.findByUsername("legacy").orElseThrow();
+        Todo created = todoRepository.save(new Todo(legacy.getId(), "After partitioning", null, Todo.Priority.HIGH, null));
+        assertThat(created.getId()).isGreaterThan(legacyMaxId);
+    }
+
+    @Test
+    void findByUserIdAndIsCompletedOrderByCreatedAtDesc() {
+        assertSinglePartition(() -> todoRepository.findByUserIdAndIsCompletedOrderByCreatedAtDesc(USER_ID, false));
+    }
+
+    @Test
+    void findByIdAndUserId() {
+        assertSinglePartition(() -> todoRepository.findByIdAndUserId(1L, USER_ID));
+    }
+
+    @Test
+    void findByUserIdAndIdIn() {
+        assertSinglePartition(() -> todoRepository.findByUserIdAndIdIn(USER_ID, List.of(1L, 2L, 3L)));
+    }
+
+    @Test
+    void findResponsesByUserId() {
+        assertSinglePartition(() -> todoRepository.findResponsesByUserId(USER_ID));
+    }
+
+    @Test
+    void findByUserIdOrderByPriorityAndDueDate() {
+        assertSinglePartition(() -> todoRepository.findByUserIdOrderByPriorityAndDueDate(USER_ID));
+    }
+
+    @Test
+    void findPageByUserId() {
+        assertSinglePartition(() -> todoRepository.findPageByUserId(USER_ID, PageRequest.of(0, 51)));
+    }
+
+    @Test
+    void findPageByUserIdAfter() {
+        assertSinglePartition(() -> todoRepository.findPageByUserIdAfter(USER_ID, NOW, 1L, PageRequest.of(0, 51)));
+    }
+
+    @Test
+    void findPriorityPageByUserId() {
+        assertSinglePartition(() -> todoRepository.findPriorityPageByUserId(USER_ID, PageRequest.of(0, 51)));
+    }
+
+    @Test
+    void findPriorityPageByUserIdAfter() {
+        assertSinglePartition(() -> todoRepository.findPriorityPageByUserIdAfter(
+                USER_ID, 2, NOW, NOW, 1L, PageRequest.of(0, 51)));
+    }
+
+    @Test
+    void findPriorityPageByUserIdAfterUndated() {
+        assertSinglePartition(() -> todoRepository.findPriorityPageByUserIdAfterUndated(
+                USER_ID, 2, NOW, 1L, PageRequest.of(0, 51)));
+    }
+
+    @Test
+    void streamByUserId() {
+        assertSinglePartition(() -> transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<?> todos = todoRepository.streamByUserId(USER_ID)) {
+                todos.forEach(todo -> { });
+            }
+        }));
+    }
+
+    @Test
+    void completeByIdAndUserId() {
+        assertSinglePartition(() -> todoRepository.completeByIdAndUserId(1L, USER_ID, NOW));
+    }
+
+    @Test
+    void toggleCompletionByIdAndUserId() {
+        assertSinglePartition(() -> todoRepository.toggleCompletionByIdAndUserId(1L, USER_ID, NOW));
+    }
+
+    private void assertSinglePartition(Runnable call) {
+        List<String> statements = QueryPlans.statementsOf(call, "todos");
+        assertThat(statements).isNotEmpty();
+        for (String sql : statements) {
+            String plan = QueryPlans.explain(jdbcTemplate, sql, false);
+            assertThat(QueryPlans.partitionsIn(plan, "todos"))
+                    .as("partitions in plan of %s:%n%s", sql, plan)
+                    .hasSize(1);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.todoai.service;
+
+import com.sun.net.httpserver.HttpServer;
+import com.todoai.dto.todo.TodoRequest;
+import com.todoai.entity.Todo;
+import com.todoai.entity.User;
+import com.todoai.repository.UserRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives many concurrent prioritization jobs against an OpenAI stub that answers after a fixed
+ * delay. The jobs must finish in about {@code jobs / threads} delays, every one through the stub, and
+ * without the job executor ever running more workers than configured.
+ */
+@SpringBootTest
+@Testcontainers
+class AiJobServiceThroughputTest {
+    private static final int THREADS = 8;
+    private static final int JOBS = 64;
+    private static final long DELAY_MILLIS = 250;
+
+    private static final String COMPLETION = "{\"id\":\"stub\",\"object\":\"chat.completion\",\"created\":0,"
+            + "\"model\":\"stub\",\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\","
+            + "\"content\":\"1. [T1]\"},\"finish_reason\":\"stop\"}],"
+            + "\"usage\":{\"prompt_tokens\":1,\"completion_tokens\":1,\"total_tokens\":2}}";
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final AtomicInteger stubRequests = new AtomicInteger();
+    private static final HttpServer openAiStub = startStub();
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("openai.api.key", () -> "stub-key");
+        registry.add("openai.api.base-url", () -> "http://localhost:" + openAiStub.getAddress().getPort() + "/");
+        registry.add("openai.jobs.threads", () -> THREADS);
+        registry.add("openai.jobs.queue-capacity", () -> JOBS);
+        // Keep the guard out of the way so every job reaches the stub
+        registry.add("openai.guard.max-concurrent", () -> THREADS);
+        registry.add("openai.guard.max-wait", () -> "30s");
+        registry.add("openai.guard.requests-per-minute", () -> 100000);
+        registry.add("openai.guard.tokens-per-minute", () -> 100000000);
+    }
+
+    @Autowired
+    private AiJobService aiJobService;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterAll
+    static void stopStub() {
+        openAiStub.stop(0);
+    }
+
+    @Test
+    void concurrentJobsKeepThroughputWithoutGrowingThePool() {
+        // One user per job: a user's repeat submissions would be deduplicated
+        List<Authentication> users = new ArrayList<>();
+        for (int i = 0; i < JOBS; i++) {
+            User user = userRepository.save(new User("load" + i, "load" + i + "@example.com", "password"));
+            Authentication authentication = new UsernamePasswordAuthenticationToken(user, null, List.of());
+            todoService.createTodo(new TodoRequest("Todo " + i, null, Todo.Priority.MEDIUM, null), authentication);
+            users.add(authentication);
+        }
+
+        AtomicInteger peakRunning = new AtomicInteger();
+        AtomicInteger peakWorkers = new AtomicInteger();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            peakRunning.accumulateAndGet(aiJobService.getRunningCount(), Math::max);
+            int workers = (int) Thread.getAllStackTraces().keySet().stream()
+                    .filter(thread -> thread.getName().startsWith("ai-job-"))
+                    .count();
+            peakWorkers.accumulateAndGet(workers, Math::max);
+        }, 0, 10, TimeUnit.MILLISECONDS);
+
+        long started = System.nanoTime();
+        List<CompletableFuture<AiJob>> completions = new ArrayList<>();
+        for (Authentication authentication : users) {
+            completions.add(aiJobService.submitPrioritization(authentication).getCompletion());
+        }
+        List<AiJob> finished = completions.stream().map(CompletableFuture::join).toList();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        sampler.shutdownNow();
+
+        assertThat(finished).allMatch(job -> job.getStatus() == AiJob.Status.SUCCEEDED);
+        assertThat(stubRequests.get()).isEqualTo(JOBS);
+
+        // Ideal is JOBS / THREADS waves of one delay each; allow twice that for scheduling and DB work
+        long ideal = (long) Math.ceil((double) JOBS / THREADS) * DELAY_MILLIS;
+        assertThat(elapsedMillis).isLessThan(2 * ideal);
+        assertThat(peakRunning.get()).isLessThanOrEqualTo(THREADS);
+        assertThat(peakWorkers.get()).isLessThanOrEqualTo(THREADS);
+    }
+
+    private static HttpServer startStub() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/", exchange -> {
+                stubRequests.incrementAndGet();
+                try {
+                    Thread.sleep(DELAY_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                byte[] body = COMPLETION.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            // Requests must overlap for the delay to model a slow upstream rather than a serial one
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start OpenAI stub", e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.todoai.service;
+
+import com.todoai.TodoAiApplication;
+import com.todoai.dto.todo.TodoRequest;
+import com.todoai.dto.todo.TodoResponse;
+import com.todoai.entity.Todo;
+import com.todoai.entity.User;
+import com.todoai.repository.UserRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Two application contexts against one database stand in for two nodes: a write on one must evict
+ * the other's read model so its next read reloads from the database.
+ */
+@Testcontainers
+class CacheInvalidationBusTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode();
+        nodeB = startNode();
+        await().atMost(Duration.ofSeconds(30)).until(() ->
+                nodeA.getBean(CacheInvalidationBus.class).isListening()
+                        && nodeB.getBean(CacheInvalidationBus.class).isListening());
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+    }
+
+    @Test
+    void writeOnOneNodeEvictsAndReloadsOnTheOther() {
+        User user = nodeA.getBean(UserRepository.class)
+                .save(new User("invalidation", "invalidation@example.com", "password"));
+        Authentication authentication = new UsernamePasswordAuthenticationToken(user, null, List.of());
+
+        TodoService todosOnA = nodeA.getBean(TodoService.class);
+        TodoService todosOnB = nodeB.getBean(TodoService.class);
+        TodoReadModelCache cacheOnB = nodeB.getBean(TodoReadModelCache.class);
+        CacheInvalidationBus busOnB = nodeB.getBean(CacheInvalidationBus.class);
+
+        // Warm node B's snapshot; a second read is a hit
+        assertThat(todosOnB.getUserTodos(authentication)).isEmpty();
+        assertThat(todosOnB.getUserTodos(authentication)).isEmpty();
+        long missesBefore = cacheOnB.getMissCount();
+        long receivedBefore = busOnB.getReceivedCount();
+
+        TodoResponse created = todosOnA.createTodo(
+                new TodoRequest("Written on node A", null, Todo.Priority.HIGH, null), authentication);
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> busOnB.getReceivedCount() > receivedBefore);
+        await().atMost(Duration.ofSeconds(10)).until(() -> cacheOnB.getSize() == 0);
+
+        List<TodoResponse> reloaded = todosOnB.getUserTodos(authentication);
+        assertThat(reloaded).extracting(TodoResponse::getId).containsExactly(created.getId());
+        assertThat(cacheOnB.getMissCount()).isGreaterThan(missesBefore);
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(TodoAiApplication.class)
+                .properties(
+                        "spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword(),
+                        "server.port=0",
+                        "todoai.cache.invalidation.poll-timeout=1s")
+                .run();
+    }
+}
@@ -0,0 +1,97 @@
+package com.todoai.service;
+
+import com.todoai.dto.todo.TodoResponse;
+import com.todoai.entity.Todo;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TodoOrderMatcherTest {
+    private static final int LARGE_LIST = 5_000;
+
+    @Test
+    void matchesKeysInEveryListForm() {
+        List<TodoResponse> todos = todos("Buy milk", "Call Bob", "Write report", "Pay rent");
+        TodoOrderMatcher matcher = new TodoOrderMatcher(todos);
+
+        assertThat(matcher.match("T3")).isSameAs(todos.get(2));
+        assertThat(matcher.match("1. [T1] Buy milk")).isSameAs(todos.get(0));
+        assertThat(matcher.match("- t4: Pay rent")).isSameAs(todos.get(3));
+        assertThat(matcher.match("T2x")).isNull();
+        assertThat(matcher.unmatched()).containsExactly(todos.get(1));
+    }
+
+    @Test
+    void prefersAnExactTitleOverAKeyLikePrefix() {
+        List<TodoResponse> todos = todos("Buy milk", "Call Bob", "T3 report review");
+        TodoOrderMatcher matcher = new TodoOrderMatcher(todos);
+
+        assertThat(matcher.match("T3 report review")).isSameAs(todos.get(2));
+        assertThat(matcher.match("2. t3 REPORT review")).isNull();
+        assertThat(matcher.match("T1")).isSameAs(todos.get(0));
+    }
+
+    @Test
+    void fallsBackToTheTitleWhenTheKeyIsOutOfRangeOrTaken() {
+        List<TodoResponse> todos = todos("Buy milk", "Call Bob", "Call Bob");
+        TodoOrderMatcher matcher = new TodoOrderMatcher(todos);
+
+        assertThat(matcher.match("[T99] Call Bob")).isSameAs(todos.get(1));
+        assertThat(matcher.match("T1")).isSameAs(todos.get(0));
+        assertThat(matcher.match("T1: Call Bob")).isSameAs(todos.get(2));
+        assertThat(matcher.match("T1")).isNull();
+        assertThat(matcher.getMatchedCount()).isEqualTo(3);
+    }
+
+    @Test
+    void reordersFiveThousandTodosInUnderOneMillisecond() {
+        String[] titles = new String[LARGE_LIST];
+        for (int i = 0; i < LARGE_LIST; i++) {
+            titles[i] = "Todo " + (i + 1);
+        }
+        List<TodoResponse> todos = todos(titles);
+        // Keys in reverse order, every tenth line repeating only the title
+        StringBuilder response = new StringBuilder();
+        for (int i = LARGE_LIST - 1; i >= 0; i--) {
+            response.append(LARGE_LIST - i).append(". ");
+            if (i % 10 == 0) {
+                response.append(titles[i]).append('\n');
+            } else {
+                response.append('[').append(TodoOrderMatcher.key(i)).append("] ").append(titles[i]).append('\n');
+            }
+        }
+        String aiResponse = response.toString();
+
+        List<TodoResponse> reordered = OpenAiService.reorderTodosByAiResponse(todos, aiResponse);
+        assertThat(reordered).hasSize(LARGE_LIST);
+        assertThat(reordered.get(0)).isSameAs(todos.get(LARGE_LIST - 1));
+        assertThat(reordered.get(LARGE_LIST - 1)).isSameAs(todos.get(0));
+
+        // Warm up the JIT, then take the median so one GC pause or descheduling does not fail the run
+        for (int i = 0; i < 500; i++) {
+            OpenAiService.reorderTodosByAiResponse(todos, aiResponse);
+        }
+        long[] nanos = new long[51];
+        for (int i = 0; i < nanos.length; i++) {
+            long started = System.nanoTime();
+            OpenAiService.reorderTodosByAiResponse(todos, aiResponse);
+            nanos[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(nanos);
+        assertThat(nanos[nanos.length / 2]).as("median nanoseconds").isLessThan(1_000_000L);
+    }
+
+    private static List<TodoResponse> todos(String... titles) {
+        LocalDateTime now = LocalDateTime.now();
+        List<TodoResponse> todos = new ArrayList<>(titles.length);
+        for (int i = 0; i < titles.length; i++) {
+            todos.add(new TodoResponse((long) i + 1, titles[i], null, Todo.Priority.MEDIUM, false, null, now, now));
+        }
+        return todos;
+    }
+}
@@ -0,0 +1,39 @@
+-- Schema as Hibernate's ddl-auto created it before migrations existed, with identity id columns
+CREATE TABLE users (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username    VARCHAR(50)  NOT NULL UNIQUE,
+    email       VARCHAR(255) NOT NULL UNIQUE,
+    password    VARCHAR(255) NOT NULL,
+    created_at  TIMESTAMP(6)
+);
+
+CREATE TABLE todos (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id       BIGINT        NOT NULL REFERENCES users (id),
+    title         VARCHAR(255)  NOT NULL,
+    description   VARCHAR(1000),
+    priority      VARCHAR(255)  CHECK (priority IN ('LOW', 'MEDIUM', 'HIGH', 'URGENT')),
+    is_completed  BOOLEAN       NOT NULL DEFAULT FALSE,
+    due_date      TIMESTAMP(6),
+    created_at    TIMESTAMP(6),
+    updated_at    TIMESTAMP(6)
+);
+
+CREATE TABLE ai_suggestions (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id         BIGINT        NOT NULL REFERENCES users (id),
+    suggested_task  VARCHAR(500)  NOT NULL,
+    priority        VARCHAR(255)  CHECK (priority IN ('LOW', 'MEDIUM', 'HIGH', 'URGENT')),
+    created_at      TIMESTAMP(6)
+);
+
+INSERT INTO users (username, email, password, created_at)
+VALUES ('legacy', 'legacy@example.com', 'password', now());
+
+INSERT INTO todos (user_id, title, priority, created_at, updated_at)
+SELECT u.id, 'Legacy todo ' || n, 'MEDIUM', now(), now()
+  FROM users u, generate_series(1, 3) n;
+
+INSERT INTO ai_suggestions (user_id, suggested_task, priority, created_at)
+SELECT u.id, 'Legacy suggestion', 'LOW', now()
+  FROM users u;